@@ -0,0 +1,14 @@
+package factory.bench;
+
+public final class AllBenchmarks {
+
+    public static void main(String[] args)
+            throws Exception {
+        StorageBenchmark.main(args);
+        ThreadPoolBenchmark.main(args);
+        UniqueObjectBenchmark.main(args);
+        SalesLogBenchmark.main(args);
+        SalesFormatterBenchmark.main(args);
+        FactoryThroughputBenchmark.main(args);
+    }
+}
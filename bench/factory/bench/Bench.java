@@ -0,0 +1,117 @@
+package factory.bench;
+
+import factory.factory.dealer.SalesLog;
+
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.concurrent.CyclicBarrier;
+import java.util.logging.LogManager;
+
+final class Bench {
+    // Set by bench/run.sh, which also runs every fork in a fresh JVM
+    private static final int WARMUP_ITERATIONS = Math.max(0, Integer.getInteger("bench.warmup", 3));
+    private static final int MEASUREMENT_ITERATIONS = Math.max(1, Integer.getInteger("bench.iterations", 5));
+
+    private Bench() {
+    }
+
+    static void disableLogging() {
+        LogManager.getLogManager().reset();
+    }
+
+    // The sales journal would add disk writes to every run and overwrite the log.0.0.txt of a real run
+    static Properties factoryProperties() {
+        var properties = new Properties();
+        properties.setProperty("SalesLog", SalesLog.Type.NONE.toString());
+        return properties;
+    }
+
+    static int[] threadCounts() {
+        var counts = new ArrayList<Integer>();
+        int maxThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        for (int count = 1; count <= maxThreads; count *= 2) {
+            counts.add(count);
+        }
+
+        return counts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static void printHeader(String title) {
+        System.out.printf(
+                "%n%s (%d warm-up, %d measured iterations)%n%-60s %16s %12s%n",
+                title,
+                WARMUP_ITERATIONS,
+                MEASUREMENT_ITERATIONS,
+                "Benchmark",
+                "ops/s",
+                "error"
+        );
+    }
+
+    static void measure(String name, Iteration iteration)
+            throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            iteration.run();
+        }
+
+        var rates = new double[MEASUREMENT_ITERATIONS];
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            long startedAt = System.nanoTime();
+            long operations = iteration.run();
+            rates[i] = operations * 1e9 / (System.nanoTime() - startedAt);
+        }
+
+        double mean = 0;
+        for (var rate : rates) {
+            mean += rate / rates.length;
+        }
+
+        double variance = 0;
+        for (var rate : rates) {
+            variance += (rate - mean) * (rate - mean) / Math.max(1, rates.length - 1);
+        }
+
+        System.out.printf("%-60s %16.0f %12.0f%n", name, mean, Math.sqrt(variance));
+    }
+
+    static void runConcurrently(int threadsCount, ThreadBody body)
+            throws Exception {
+        var barrier = new CyclicBarrier(threadsCount);
+        var threads = new ArrayList<Thread>(threadsCount);
+        var failures = new ArrayList<Throwable>();
+
+        for (int i = 0; i < threadsCount; ++i) {
+            final int index = i;
+            var thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    body.run(index);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Benchmark thread failed", failures.get(0));
+        }
+    }
+
+    interface Iteration {
+
+        long run() throws Exception;
+    }
+
+    interface ThreadBody {
+
+        void run(int threadIndex) throws Exception;
+    }
+}
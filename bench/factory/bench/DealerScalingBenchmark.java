@@ -0,0 +1,86 @@
+package factory.bench;
+
+import factory.factory.Factory;
+import factory.util.ThreadMode;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+public final class DealerScalingBenchmark {
+    private static final int[] DEFAULT_DEALER_COUNTS = { 100, 1_000, 10_000, 50_000 };
+    private static final long MEASUREMENT_MILLIS = 5_000;
+
+    public static void main(String[] args)
+            throws IOException, InterruptedException {
+        Bench.disableLogging();
+
+        var dealerCounts = DEFAULT_DEALER_COUNTS;
+        if (args.length > 0) {
+            dealerCounts = new int[args.length];
+            for (int i = 0; i < args.length; ++i) {
+                dealerCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-10s %10s %12s %12s %12s %12s%n",
+                "Mode", "Dealers", "Startup ms", "Cars/s", "Threads", "Heap MB");
+
+        for (var mode : ThreadMode.values()) {
+            if (!mode.isSupported()) {
+                System.out.printf("%-10s not supported by %s%n", mode, Runtime.version());
+                continue;
+            }
+
+            for (var dealersCount : dealerCounts) {
+                if (!run(mode, dealersCount)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean run(ThreadMode mode, int dealersCount)
+            throws IOException, InterruptedException {
+        var properties = Bench.factoryProperties();
+        properties.setProperty("BodyStorageSize", "1000");
+        properties.setProperty("MotorStorageSize", "1000");
+        properties.setProperty("AccessoryStorageSize", "1000");
+        properties.setProperty("CarStorageSize", "1000");
+        properties.setProperty("AccessorySuppliersCount", "4");
+        properties.setProperty("WorkersCount", "8");
+        properties.setProperty("DealersCount", String.valueOf(dealersCount));
+        properties.setProperty("ThreadMode", mode.toString());
+
+        var factory = new Factory(Factory.FactoryProperties.fromProperties(properties));
+        factory.getSuppliers().bodiesSupplier.setDelayMillis(1);
+        factory.getSuppliers().motorsSupplier.setDelayMillis(1);
+        for (var supplier : factory.getSuppliers().accessoriesSuppliers) {
+            supplier.setDelayMillis(1);
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            factory.run();
+        } catch (OutOfMemoryError e) {
+            factory.shutdown();
+            System.out.printf("%-10s %10d failed to start: %s%n", mode, dealersCount, e.getMessage());
+            return false;
+        }
+        long startupMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        var controller = factory.getStorageArea().controller;
+        int soldBefore = controller.getDispatchedCarsCount();
+        Thread.sleep(MEASUREMENT_MILLIS);
+        int sold = controller.getDispatchedCarsCount() - soldBefore;
+
+        int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+        var runtime = Runtime.getRuntime();
+        long heapMegabytes = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+
+        factory.shutdown();
+
+        System.out.printf("%-10s %10d %12d %12.1f %12d %12d%n",
+                mode, dealersCount, startupMillis, sold * 1000.0 / MEASUREMENT_MILLIS, threads, heapMegabytes);
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package factory.bench;
+
+import factory.factory.Factory;
+import factory.factory.storage.PartsReservation;
+import factory.factory.storage.StorageBackend;
+import factory.threadpool.ThreadPool;
+
+public final class FactoryThroughputBenchmark {
+    private static final long RUN_MILLIS = 2_000;
+
+    public static void main(String[] args)
+            throws Exception {
+        Bench.disableLogging();
+        Bench.printHeader("End-to-end cars/s with zero supplier and dealer delays");
+
+        for (var backend : StorageBackend.Type.values()) {
+            for (var scheduling : ThreadPool.Scheduling.values()) {
+                for (var reservation : PartsReservation.values()) {
+                    var properties = Bench.factoryProperties();
+                    properties.setProperty("BodyStorageSize", "100");
+                    properties.setProperty("MotorStorageSize", "100");
+                    properties.setProperty("AccessoryStorageSize", "100");
+                    properties.setProperty("CarStorageSize", "100");
+                    properties.setProperty("AccessorySuppliersCount", "4");
+                    properties.setProperty("WorkersCount", "4");
+                    properties.setProperty("DealersCount", "8");
+                    properties.setProperty("StorageBackend", backend.toString());
+                    properties.setProperty("WorkersScheduling", scheduling.toString());
+                    properties.setProperty("PartsReservation", reservation.toString());
+                    var factoryProperties = Factory.FactoryProperties.fromProperties(properties);
+
+                    Bench.measure(
+                            String.format("%s, %s, %s", backend, scheduling, reservation),
+                            () -> run(factoryProperties)
+                    );
+                }
+            }
+        }
+    }
+
+    private static long run(Factory.FactoryProperties properties)
+            throws InterruptedException {
+        var factory = new Factory(properties);
+
+        factory.getSuppliers().bodiesSupplier.setDelayMillis(0);
+        factory.getSuppliers().motorsSupplier.setDelayMillis(0);
+        for (var supplier : factory.getSuppliers().accessoriesSuppliers) {
+            supplier.setDelayMillis(0);
+        }
+        for (var dealer : factory.getDealers().dealers) {
+            dealer.setDelayMillis(0);
+        }
+
+        factory.run();
+        Thread.sleep(RUN_MILLIS);
+        factory.shutdown();
+
+        return factory.getStorageArea().controller.getDispatchedCarsCount();
+    }
+}
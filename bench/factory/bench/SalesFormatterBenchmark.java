@@ -0,0 +1,87 @@
+package factory.bench;
+
+import factory.factory.car.Car;
+import factory.factory.car.parts.Accessory;
+import factory.factory.car.parts.Body;
+import factory.factory.car.parts.Motor;
+import factory.factory.dealer.Dealer;
+import factory.util.SalesFormatter;
+
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.util.Date;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+public final class SalesFormatterBenchmark {
+    private static final int RECORDS_PER_ITERATION = 500_000;
+
+    private static volatile Object sink;
+
+    public static void main(String[] args)
+            throws Exception {
+        Bench.disableLogging();
+
+        var record = new LogRecord(Level.INFO, "{0}: {1}");
+        record.setParameters(new Object[] {
+                new Dealer(null, null, 0),
+                new Car(new Body(), new Motor(), new Accessory())
+        });
+
+        var formatters = new Formatter[] { new LegacySalesFormatter(), new SalesFormatter() };
+
+        Bench.printHeader("Sales records formatted per second");
+        for (var formatter : formatters) {
+            Bench.measure(formatter.getClass().getSimpleName(), () -> {
+                formatRecords(formatter, record);
+                return RECORDS_PER_ITERATION;
+            });
+        }
+
+        System.out.printf("%n%-60s %16s%n", "Allocation", "bytes/record");
+        for (var formatter : formatters) {
+            System.out.printf(
+                    "%-60s %16.1f%n",
+                    formatter.getClass().getSimpleName(),
+                    allocatedBytesPerRecord(formatter, record)
+            );
+        }
+    }
+
+    // For SalesFormatter the remaining allocation is the returned line itself
+    private static double allocatedBytesPerRecord(Formatter formatter, LogRecord record) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        formatRecords(formatter, record);
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        formatRecords(formatter, record);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        return (double) allocated / RECORDS_PER_ITERATION;
+    }
+
+    private static void formatRecords(Formatter formatter, LogRecord record) {
+        long startMillis = System.currentTimeMillis();
+        for (int i = 0; i < RECORDS_PER_ITERATION; ++i) {
+            // Advancing the clock every thousand records keeps the timestamp cache honest
+            if (i % 1000 == 0) {
+                record.setInstant(Instant.ofEpochMilli(startMillis + i));
+            }
+            sink = formatter.format(record);
+        }
+    }
+
+    // The formatter as it was before it cached timestamps, kept as a baseline
+    private static final class LegacySalesFormatter extends Formatter {
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        @Override
+        public String format(LogRecord record) {
+            var timestamp = this.dateFormat.format(new Date(record.getMillis()));
+            return String.format("[%s] %s\n", timestamp, this.formatMessage(record));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package factory.bench;
+
+import factory.factory.car.Car;
+import factory.factory.car.parts.Accessory;
+import factory.factory.car.parts.Body;
+import factory.factory.car.parts.Motor;
+import factory.factory.dealer.Dealer;
+import factory.factory.dealer.LoggerSalesLog;
+import factory.factory.dealer.SalesJournal;
+import factory.factory.dealer.SalesLog;
+import factory.util.SalesFormatter;
+
+import java.nio.file.Files;
+import java.util.logging.FileHandler;
+import java.util.logging.Logger;
+
+public final class SalesLogBenchmark {
+    private static final int SALES_PER_ITERATION = 200_000;
+
+    public static void main(String[] args)
+            throws Exception {
+        Bench.disableLogging();
+        Bench.printHeader("Sales recorded per second on dealer threads");
+
+        var car = new Car(new Body(), new Motor(), new Accessory());
+        var dealer = new Dealer(null, null, 0);
+
+        var loggerFile = Files.createTempFile("sales-logger", ".txt");
+        var fileHandler = new FileHandler(loggerFile.toString());
+        fileHandler.setFormatter(new SalesFormatter());
+        var salesLogger = Logger.getLogger(Dealer.class.getSimpleName() + "Sales");
+        salesLogger.setUseParentHandlers(false);
+        salesLogger.addHandler(fileHandler);
+
+        var journalFile = Files.createTempFile("sales-journal", ".txt");
+
+        try {
+            for (var threads : Bench.threadCounts()) {
+                measure(String.format("Logger, %d thread(s)", threads), new LoggerSalesLog(), dealer, car, threads);
+                measure(
+                        String.format("Journal, %d thread(s)", threads),
+                        new SalesJournal(journalFile),
+                        dealer,
+                        car,
+                        threads
+                );
+            }
+        } finally {
+            salesLogger.removeHandler(fileHandler);
+            fileHandler.close();
+            Files.deleteIfExists(loggerFile);
+            Files.deleteIfExists(journalFile);
+        }
+    }
+
+    // The journal is stopped inside each iteration so the measurement includes draining it to disk
+    private static void measure(
+            String name,
+            SalesLog salesLog,
+            Dealer dealer,
+            Car car,
+            int threads)
+            throws Exception {
+        Bench.measure(name, () -> {
+            salesLog.start();
+            Bench.runConcurrently(threads, index -> {
+                for (int i = 0; i < SALES_PER_ITERATION / threads; ++i) {
+                    salesLog.record(dealer, car);
+                }
+            });
+            salesLog.stop();
+            return SALES_PER_ITERATION;
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package factory.bench;
+
+import factory.factory.car.parts.Body;
+import factory.factory.storage.PackedCodec;
+import factory.factory.storage.Storage;
+import factory.factory.storage.StorageBackend;
+
+public final class StorageBenchmark {
+    private static final int CAPACITY = 1024;
+    private static final int OPERATIONS_PER_ITERATION = 1_000_000;
+
+    public static void main(String[] args)
+            throws Exception {
+        Bench.disableLogging();
+        Bench.printHeader("Storage put/take throughput");
+
+        var parts = new Body[CAPACITY];
+        for (int i = 0; i < parts.length; ++i) {
+            parts[i] = new Body();
+        }
+
+        for (var backend : StorageBackend.Type.values()) {
+            for (var producers : Bench.threadCounts()) {
+                for (var consumers : Bench.threadCounts()) {
+                    var storage = new Storage<Body>(CAPACITY, backend, PackedCodec.ofIds(Body::new));
+                    int perProducer = OPERATIONS_PER_ITERATION / producers;
+                    int perConsumer = perProducer * producers / consumers;
+                    int total = perConsumer * consumers;
+
+                    Bench.measure(
+                            String.format("%s %d producer(s) / %d consumer(s)", backend, producers, consumers),
+                            () -> {
+                                Bench.runConcurrently(producers + consumers, index -> {
+                                    if (index < producers) {
+                                        int count = index == 0 ? total - perProducer * (producers - 1) : perProducer;
+                                        for (int i = 0; i < count; ++i) {
+                                            storage.put(parts[i % parts.length]);
+                                        }
+                                    } else {
+                                        for (int i = 0; i < perConsumer; ++i) {
+                                            storage.take();
+                                        }
+                                    }
+                                });
+                                return total;
+                            }
+                    );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package factory.bench;
+
+import factory.threadpool.ThreadPool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public final class ThreadPoolBenchmark {
+    private static final int TASKS_PER_ITERATION = 200_000;
+
+    public static void main(String[] args)
+            throws Exception {
+        Bench.disableLogging();
+        Bench.printHeader("Executor.execute throughput (tasks submitted from 4 threads)");
+
+        for (var workers : Bench.threadCounts()) {
+            for (var scheduling : ThreadPool.Scheduling.values()) {
+                var pool = new ThreadPool(workers, scheduling, Thread::new);
+                pool.run();
+                Bench.measure(String.format("ThreadPool %s, %d worker(s)", scheduling, workers), () -> submit(pool));
+                pool.shutdown();
+            }
+
+            var baseline = new ThreadPoolExecutor(
+                    workers, workers, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()
+            );
+            Bench.measure(String.format("ThreadPoolExecutor, %d worker(s)", workers), () -> submit(baseline));
+            baseline.shutdownNow();
+        }
+    }
+
+    private static long submit(Executor executor)
+            throws Exception {
+        final int submitters = 4;
+        var done = new CountDownLatch(TASKS_PER_ITERATION);
+
+        Bench.runConcurrently(submitters, index -> {
+            for (int i = 0; i < TASKS_PER_ITERATION / submitters; ++i) {
+                executor.execute(done::countDown);
+            }
+        });
+        done.await();
+
+        return TASKS_PER_ITERATION;
+    }
+}
@@ -0,0 +1,64 @@
+package factory.bench;
+
+import factory.factory.car.parts.Accessory;
+import factory.factory.car.parts.Body;
+
+import java.util.HashMap;
+
+public final class UniqueObjectBenchmark {
+    private static final int OBJECTS_PER_ITERATION = 2_000_000;
+
+    private static volatile Object sink;
+
+    public static void main(String[] args)
+            throws Exception {
+        Bench.disableLogging();
+        Bench.printHeader("UniqueObject construction under contention");
+
+        for (var threads : Bench.threadCounts()) {
+            Bench.measure(String.format("Body, %d thread(s)", threads), () -> {
+                Bench.runConcurrently(threads, index -> {
+                    for (int i = 0; i < OBJECTS_PER_ITERATION / threads; ++i) {
+                        sink = new Body();
+                    }
+                });
+                return OBJECTS_PER_ITERATION;
+            });
+
+            Bench.measure(String.format("Body and Accessory, %d thread(s)", threads), () -> {
+                Bench.runConcurrently(threads, index -> {
+                    for (int i = 0; i < OBJECTS_PER_ITERATION / threads; ++i) {
+                        sink = index % 2 == 0 ? new Body() : new Accessory();
+                    }
+                });
+                return OBJECTS_PER_ITERATION;
+            });
+
+            Bench.measure(String.format("Global lock baseline, %d thread(s)", threads), () -> {
+                Bench.runConcurrently(threads, index -> {
+                    for (int i = 0; i < OBJECTS_PER_ITERATION / threads; ++i) {
+                        sink = GlobalLockIds.next(Body.class);
+                    }
+                });
+                return OBJECTS_PER_ITERATION;
+            });
+        }
+    }
+
+    // The allocation scheme UniqueObject used before per-class counters, kept as a baseline
+    private static final class GlobalLockIds {
+        private static final HashMap<Class<?>, Integer> objectsCount = new HashMap<>();
+
+        private static Integer next(Class<?> type) {
+            synchronized (objectsCount) {
+                if (!objectsCount.containsKey(type)) {
+                    objectsCount.put(type, 0);
+                }
+
+                var currentCount = objectsCount.get(type);
+                objectsCount.put(type, currentCount + 1);
+                return currentCount;
+            }
+        }
+    }
+}
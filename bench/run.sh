@@ -0,0 +1,41 @@
+#!/bin/sh
+# Builds the sources and benchmarks, then runs a benchmark once per fork, each in a fresh JVM:
+#   bench/run.sh [-w warm-up iterations] [-i measured iterations] [-f forks] [Benchmark [arguments...]]
+# The benchmark is a class of factory.bench and defaults to AllBenchmarks; JAVA_OPTS is passed to every fork.
+set -e
+
+warmup=3
+iterations=5
+forks=3
+while getopts w:i:f: option; do
+    case "$option" in
+        w) warmup="$OPTARG" ;;
+        i) iterations="$OPTARG" ;;
+        f) forks="$OPTARG" ;;
+        *) exit 2 ;;
+    esac
+done
+shift $((OPTIND - 1))
+
+benchmark="${1:-AllBenchmarks}"
+[ $# -gt 0 ] && shift
+
+root="$(cd "$(dirname "$0")/.." && pwd)"
+classes="$(mktemp -d)"
+trap 'rm -rf "$classes"' EXIT
+
+find "$root/src" "$root/bench" -name '*.java' > "$classes/sources"
+javac -d "$classes" @"$classes/sources"
+(cd "$root/src" && find . -name '*.properties') | while read -r resource; do
+    mkdir -p "$classes/$(dirname "$resource")"
+    cp "$root/src/$resource" "$classes/$resource"
+done
+
+fork=1
+while [ "$fork" -le "$forks" ]; do
+    echo "# Fork $fork of $forks"
+    # shellcheck disable=SC2086
+    java $JAVA_OPTS -Dbench.warmup="$warmup" -Dbench.iterations="$iterations" -cp "$classes" \
+            "factory.bench.$benchmark" "$@"
+    fork=$((fork + 1))
+done
@@ -1,14 +1,34 @@
 package factory;
 
 import factory.factory.Factory;
+import factory.factory.events.EventLog;
+import factory.factory.events.EventLogReader;
+import factory.management.FactoryManagement;
+import factory.simulation.Simulation;
+import factory.simulation.Sweep;
 import factory.ui.gui.MainWindow;
+import factory.ui.headless.HeadlessRunner;
+import factory.ui.headless.ReplayRunner;
+import factory.util.trace.Tracer;
 
+import javax.management.JMException;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
 public class Application {
+    private static final long DEFAULT_HEADLESS_DURATION_MILLIS = 60_000;
+    private static final int DEFAULT_ASSEMBLY_MILLIS = 100;
+    private static final long DEFAULT_SWEEP_SECONDS = 3600;
+    private static final String DEFAULT_SWEEP_CSV_FILE = "sweep.csv";
+
     private static final Logger logger;
 
     static {
@@ -18,16 +38,158 @@ public class Application {
     }
 
     public static void main(String[] args) {
+        boolean isHeadless = false;
+        long durationMillis = 0;
+        int carsLimit = 0;
+        String traceFile = null;
+        String configFile = null;
+        String snapshotFile = null;
+        String eventLogFile = null;
+        String replayFile = null;
+        long simulatedSeconds = 0;
+        long seed = 0;
+        int assemblyMillis = DEFAULT_ASSEMBLY_MILLIS;
+        int supplierDelayMillis = -1;
+        int dealerDelayMillis = -1;
+        var sweepAxes = new LinkedHashMap<String, int[]>();
+        String sweepCsvFile = DEFAULT_SWEEP_CSV_FILE;
+
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                switch (args[i]) {
+                    case "--headless":
+                        isHeadless = true;
+                        break;
+                    case "--duration":
+                        durationMillis = Long.parseLong(args[++i]) * 1000;
+                        break;
+                    case "--cars":
+                        carsLimit = Integer.parseInt(args[++i]);
+                        break;
+                    case "--trace":
+                        traceFile = args[++i];
+                        break;
+                    case "--config":
+                        configFile = args[++i];
+                        break;
+                    case "--snapshot":
+                        snapshotFile = args[++i];
+                        break;
+                    case "--event-log":
+                        eventLogFile = args[++i];
+                        break;
+                    case "--replay":
+                        replayFile = args[++i];
+                        isHeadless = true;
+                        break;
+                    case "--simulate":
+                        simulatedSeconds = Long.parseLong(args[++i]);
+                        isHeadless = true;
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--assembly-millis":
+                        assemblyMillis = Integer.parseInt(args[++i]);
+                        break;
+                    case "--supplier-delay":
+                        supplierDelayMillis = Integer.parseInt(args[++i]);
+                        break;
+                    case "--dealer-delay":
+                        dealerDelayMillis = Integer.parseInt(args[++i]);
+                        break;
+                    case "--sweep":
+                        Sweep.parseAxis(args[++i], sweepAxes);
+                        isHeadless = true;
+                        break;
+                    case "--sweep-csv":
+                        sweepCsvFile = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Usage: Application [--config <file>] [--snapshot <file>] [--event-log <file>] "
+                    + "[--trace <file>] [--headless [--duration <seconds>] [--cars <count>] | --replay <file> "
+                    + "| --simulate <seconds> [--seed <seed>] [--assembly-millis <ms>] [--supplier-delay <ms>] "
+                    + "[--dealer-delay <ms>] [--sweep <Key=values> ... [--sweep-csv <file>]]]");
+            return;
+        }
+
+        if (isHeadless) {
+            // Keeps AWT from being initialized by anything that touches it by accident
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        if (traceFile != null) {
+            enableTracing(traceFile);
+        }
+
+        if (simulatedSeconds > 0 || !sweepAxes.isEmpty()) {
+            simulate(
+                    configFile,
+                    simulatedSeconds,
+                    sweepAxes,
+                    sweepCsvFile,
+                    newSimulationFactory(seed, assemblyMillis, supplierDelayMillis, dealerDelayMillis)
+            );
+            return;
+        }
+
         final Factory factory;
 
         try {
-            factory = new Factory();
+            if (configFile == null) {
+                factory = new Factory();
+            } else {
+                factory = new Factory(Factory.FactoryProperties.load(Path.of(configFile)));
+                factory.watchConfigFile(Path.of(configFile));
+            }
             logger.fine("Created a factory instance");
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Failed to create a factory instance: {0}", e.getMessage());
             return;
         }
 
+        if (replayFile != null) {
+            replay(factory, Path.of(replayFile));
+            return;
+        }
+
+        if (snapshotFile != null) {
+            resumeFromSnapshot(factory, Path.of(snapshotFile));
+        }
+
+        if (eventLogFile != null) {
+            recordEvents(factory, Path.of(eventLogFile));
+        }
+
+        if (snapshotFile != null || eventLogFile != null) {
+            addShutdownHook(factory, snapshotFile == null ? null : Path.of(snapshotFile));
+        }
+
+        try {
+            FactoryManagement.register(factory);
+            logger.fine("Registered factory MBeans");
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "Failed to register factory MBeans: {0}", e.getMessage());
+        }
+
+        if (isHeadless) {
+            if (durationMillis <= 0 && carsLimit <= 0) {
+                durationMillis = DEFAULT_HEADLESS_DURATION_MILLIS;
+            }
+
+            logger.fine("Running headless");
+            new HeadlessRunner(factory, durationMillis, carsLimit, System.out).run();
+            return;
+        }
+
+        runMainWindow(factory);
+    }
+
+    private static void runMainWindow(Factory factory) {
         logger.fine("Creating main window");
         var mainWindow = new MainWindow(factory);
 
@@ -35,6 +197,134 @@ public class Application {
         mainWindow.run();
     }
 
+    private static void replay(Factory factory, Path eventLogFile) {
+        final EventLogReader log;
+        try {
+            log = new EventLogReader(eventLogFile);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to read the event log: {0}", e.getMessage());
+            return;
+        }
+
+        logger.fine("Replaying the event log");
+        new ReplayRunner(factory, log, System.out).run();
+    }
+
+    private static void simulate(
+            String configFile,
+            long simulatedSeconds,
+            LinkedHashMap<String, int[]> sweepAxes,
+            String sweepCsvFile,
+            Sweep.SimulationFactory simulationFactory) {
+        final Properties properties;
+        try {
+            properties = configFile == null
+                    ? Factory.FactoryProperties.readProperties()
+                    : Factory.FactoryProperties.readProperties(Path.of(configFile));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to read the configuration: {0}", e.getMessage());
+            return;
+        }
+
+        if (!sweepAxes.isEmpty()) {
+            long sweptSeconds = simulatedSeconds > 0 ? simulatedSeconds : DEFAULT_SWEEP_SECONDS;
+
+            logger.fine("Running the sweep");
+            new Sweep(
+                    properties,
+                    sweepAxes,
+                    simulationFactory,
+                    TimeUnit.SECONDS.toNanos(sweptSeconds),
+                    Path.of(sweepCsvFile),
+                    System.out
+            ).run();
+            return;
+        }
+
+        final Simulation simulation;
+        try {
+            simulation = simulationFactory.newSimulation(properties);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.log(Level.SEVERE, "Failed to create a simulation: {0}", e.getMessage());
+            return;
+        }
+
+        logger.fine("Running the simulation");
+        long startedAt = System.nanoTime();
+        simulation.run(TimeUnit.SECONDS.toNanos(simulatedSeconds));
+        simulation.printStatistics(System.nanoTime() - startedAt, System.out);
+    }
+
+    // Negative delays keep the factory's defaults
+    private static Sweep.SimulationFactory newSimulationFactory(
+            long seed,
+            int assemblyMillis,
+            int supplierDelayMillis,
+            int dealerDelayMillis) {
+        return properties -> {
+            var simulation = new Simulation(properties, seed, assemblyMillis);
+            if (supplierDelayMillis >= 0) {
+                simulation.setSupplierDelayMillis(supplierDelayMillis);
+            }
+            if (dealerDelayMillis >= 0) {
+                simulation.setDealerDelayMillis(dealerDelayMillis);
+            }
+
+            return simulation;
+        };
+    }
+
+    private static void recordEvents(Factory factory, Path eventLogFile) {
+        try {
+            EventLog.open(eventLogFile, factory.getStorageArea());
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to open the event log: {0}", e.getMessage());
+        }
+    }
+
+    // Restores the snapshot if there is one; a new one is saved by the shutdown hook
+    private static void resumeFromSnapshot(Factory factory, Path snapshotFile) {
+        if (Files.exists(snapshotFile)) {
+            try {
+                factory.restore(snapshotFile);
+                logger.log(Level.INFO, "Restored the factory from \"{0}\"", snapshotFile);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to restore the factory: {0}", e.getMessage());
+            }
+        }
+    }
+
+    // Hooks run concurrently, so one hook stops the factory and then saves the snapshot and closes the event log
+    private static void addShutdownHook(Factory factory, Path snapshotFile) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            factory.shutdown();
+
+            if (snapshotFile != null) {
+                try {
+                    factory.snapshot(snapshotFile);
+                    logger.log(Level.INFO, "Saved a factory snapshot to \"{0}\"", snapshotFile);
+                } catch (IOException e) {
+                    logger.log(Level.SEVERE, "Failed to save a factory snapshot: {0}", e.getMessage());
+                }
+            }
+
+            EventLog.close();
+        }, "FactoryShutdown"));
+    }
+
+    private static void enableTracing(String traceFile) {
+        Tracer.setEnabled(true);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try (var out = new PrintStream(traceFile)) {
+                int eventsCount = Tracer.dump(out);
+                logger.log(Level.INFO, "Dumped {0} trace events to \"{1}\"", new Object[] { eventsCount, traceFile });
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to dump trace events: {0}", e.getMessage());
+            }
+        }, "TraceDump"));
+    }
+
     private static void tryInitLogger() {
         try {
             var config = Application.class.getResourceAsStream("/factory/logging.properties");
@@ -46,4 +336,4 @@ public class Application {
             System.out.println("Could not setup logger configuration: " + e.toString());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package factory.factory;
+
+import factory.util.UniqueObject;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Reapplies an external config file to a running factory whenever the file is saved
+final class ConfigFileWatcher extends UniqueObject implements Runnable {
+    private static final Logger logger = Logger.getLogger(ConfigFileWatcher.class.getSimpleName());
+
+    // Editors tend to save in several writes, so events are let to settle before the file is read
+    private static final long SETTLE_MILLIS = 200;
+
+    private final Factory factory;
+    private final Path configFile;
+
+    ConfigFileWatcher(
+            Factory factory,
+            Path configFile) {
+        this.factory = factory;
+        this.configFile = configFile.toAbsolutePath();
+    }
+
+    @Override
+    public void run() {
+        var directory = this.configFile.getParent();
+        var fileName = this.configFile.getFileName();
+
+        try (var watchService = directory.getFileSystem().newWatchService()) {
+            directory.register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY
+            );
+
+            while (!Thread.currentThread().isInterrupted()) {
+                var key = watchService.take();
+                boolean isChanged = false;
+
+                do {
+                    for (var event : key.pollEvents()) {
+                        isChanged |= fileName.equals(event.context());
+                    }
+                    key.reset();
+
+                    TimeUnit.MILLISECONDS.sleep(SETTLE_MILLIS);
+                } while ((key = watchService.poll()) != null);
+
+                if (isChanged) {
+                    this.reload();
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to watch \"{0}\": {1}", new Object[] { this.configFile, e.getMessage() });
+        } catch (InterruptedException e) {
+            logger.log(Level.INFO, "{0} was interrupted", this);
+        }
+    }
+
+    private void reload() {
+        try {
+            this.factory.reconfigure(Factory.FactoryProperties.load(this.configFile));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Kept the current configuration: {0}", e.getMessage());
+        }
+    }
+}
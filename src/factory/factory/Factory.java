@@ -5,61 +5,269 @@ import factory.factory.car.parts.Accessory;
 import factory.factory.car.parts.Body;
 import factory.factory.car.parts.Motor;
 import factory.factory.dealer.Dealer;
+import factory.factory.dealer.LoggerSalesLog;
+import factory.factory.dealer.SalesJournal;
+import factory.factory.dealer.SalesLog;
+import factory.factory.events.EventLog;
+import factory.factory.events.EventType;
 import factory.factory.storage.CarStorageController;
+import factory.factory.storage.PackedCodec;
+import factory.factory.storage.PartsReservation;
 import factory.factory.storage.Storage;
+import factory.factory.storage.StorageBackend;
 import factory.factory.supplier.PartsSupplier;
 import factory.threadpool.ThreadPool;
+import factory.util.Periodic;
+import factory.util.PeriodicScheduler;
+import factory.util.SalesRecordEncoder;
+import factory.util.ThreadMode;
+import factory.util.UniqueObject;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class Factory implements Runnable {
+    private static final Logger logger = Logger.getLogger(Factory.class.getSimpleName());
+
     private final FactoryProperties properties;
 
     private final StorageArea storageArea;
     private final Suppliers suppliers;
     private final Dealers dealers;
+    private final SalesLog salesLog;
+    private final FactoryMetrics metrics;
 
     private final ThreadPool workersPool;
+    private final WorkersSizer workersSizer;
     private final ArrayList<Thread> threads;
 
-    private boolean isRunning = false;
+    // Suppliers and dealers come and go at runtime, so their threads are tracked apart from the fixed ones
+    private final Object entitiesLock = new Object();
+    private final LinkedHashMap<Periodic, Thread> periodicThreads = new LinkedHashMap<>();
+
+    // Only set when suppliers and dealers are driven by a timer wheel instead of their own threads
+    private final ThreadPool periodicPool;
+    private final PeriodicScheduler periodicScheduler;
+
+    // Kits of assembly tasks that a shutdown cut off, kept for a snapshot or resumed by the next run
+    private final ArrayList<Kit> unassembledKits = new ArrayList<>();
+
+    private volatile boolean isRunning = false;
 
     public Factory()
             throws IOException {
-        var properties = new FactoryProperties();
+        this(FactoryProperties.load());
+    }
+
+    public Factory(FactoryProperties properties) {
         this.properties = properties;
 
-        this.workersPool = new ThreadPool(properties.workersCount);
+        this.workersPool = new ThreadPool(
+                properties.workersCount,
+                properties.workersScheduling,
+                properties.threadMode
+        );
 
         this.storageArea = new StorageArea(
                 this,
                 properties.bodyStorageSize,
                 properties.motorStorageSize,
                 properties.accessoryStorageSize,
-                properties.carStorageSize
+                properties.carStorageSize,
+                properties.storageBackend
         );
 
-        this.suppliers = new Suppliers(this.storageArea, properties.accessorySuppliersCount);
+        this.suppliers = new Suppliers(
+                this.storageArea,
+                properties.accessorySuppliersCount,
+                properties.bodySupplierBatchSize,
+                properties.motorSupplierBatchSize,
+                properties.accessorySupplierBatchSize
+        );
+
+        this.salesLog = switch (properties.salesLog) {
+            case NONE -> (dealer, car) -> {
+            };
+            case LOGGER -> new LoggerSalesLog();
+            case JOURNAL -> new SalesJournal(Path.of(properties.salesJournalFile), properties.salesJournalFormat);
+        };
+
+        this.dealers = new Dealers(this.storageArea, this.salesLog, properties.dealersCount);
 
-        this.dealers = new Dealers(this.storageArea, properties.dealersCount);
+        this.metrics = new FactoryMetrics(this);
+
+        this.workersSizer = properties.workersScaling == WorkersSizer.Mode.ELASTIC
+                ? new WorkersSizer(this, properties.workersMin, properties.workersMax)
+                : null;
+
+        if (properties.periodicScheduling == PeriodicScheduler.Mode.TIMER_WHEEL) {
+            this.periodicPool = new ThreadPool(
+                    properties.periodicWorkersCount,
+                    ThreadPool.Scheduling.SHARED_QUEUE,
+                    properties.threadMode
+            );
+            this.periodicScheduler = new PeriodicScheduler(this.periodicPool);
+        } else {
+            this.periodicPool = null;
+            this.periodicScheduler = null;
+        }
 
-        this.threads = new ArrayList<>(properties.accessorySuppliersCount + properties.dealersCount + 2);
+        this.threads = new ArrayList<>(3);
 
         this.createThreads();
     }
 
     private void createThreads() {
-        this.threads.add(new Thread(this.suppliers.bodiesSupplier));
-        this.threads.add(new Thread(this.suppliers.motorsSupplier));
+        var threadMode = this.properties.threadMode;
 
-        for (var supplier : this.suppliers.accessoriesSuppliers) {
-            this.threads.add(new Thread(supplier));
+        if (this.periodicScheduler == null) {
+            for (var periodic : this.getPeriodics()) {
+                this.periodicThreads.put(periodic, threadMode.newThread(periodic));
+            }
         }
 
-        for (var dealer : this.dealers.dealers) {
-            this.threads.add(new Thread(dealer));
+        this.threads.add(threadMode.newThread(this.storageArea.controller));
+        if (this.workersSizer != null) {
+            this.threads.add(threadMode.newThread(this.workersSizer));
+        }
+    }
+
+    private ArrayList<Periodic> getPeriodics() {
+        var periodics = new ArrayList<Periodic>(
+                this.suppliers.accessoriesSuppliers.size() + this.dealers.dealers.size() + 2
+        );
+
+        periodics.add(this.suppliers.bodiesSupplier);
+        periodics.add(this.suppliers.motorsSupplier);
+        periodics.addAll(this.suppliers.accessoriesSuppliers);
+        periodics.addAll(this.dealers.dealers);
+
+        return periodics;
+    }
+
+    public void watchConfigFile(Path configFile)
+            throws IllegalStateException {
+        if (this.isRunning) {
+            throw new IllegalStateException("Config file must be watched before the factory runs");
+        }
+
+        this.threads.add(this.properties.threadMode.newThread(new ConfigFileWatcher(this, configFile)));
+    }
+
+    // Applies what can change under load: storage capacities and suppliers, dealers and workers counts
+    public void reconfigure(FactoryProperties newProperties) {
+        var storageArea = this.storageArea;
+        trySetCapacity(storageArea.bodiesStorage, newProperties.bodyStorageSize);
+        trySetCapacity(storageArea.motorsStorage, newProperties.motorStorageSize);
+        trySetCapacity(storageArea.accessoriesStorage, newProperties.accessoryStorageSize);
+        trySetCapacity(storageArea.carsStorage, newProperties.carStorageSize);
+
+        this.setAccessorySuppliersCount(newProperties.accessorySuppliersCount);
+        this.setDealersCount(newProperties.dealersCount);
+
+        if (this.workersSizer == null) {
+            this.workersPool.resize(newProperties.workersCount);
+        } else {
+            logger.log(Level.INFO, "{0} keeps sizing the workers pool itself", this.workersSizer);
+        }
+
+        logger.log(
+                Level.INFO,
+                "Reconfigured: {0} accessory suppliers, {1} dealers, {2} workers",
+                new Object[] {
+                        this.suppliers.accessoriesSuppliers.size(),
+                        this.dealers.dealers.size(),
+                        this.workersPool.getWorkersCount()
+                }
+        );
+    }
+
+    private static void trySetCapacity(Storage<?> storage, int capacity) {
+        try {
+            storage.setCapacity(capacity);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.WARNING, "Failed to resize {0}: {1}", new Object[] { storage, e.getMessage() });
+        }
+    }
+
+    public void setAccessorySuppliersCount(int count)
+            throws IllegalArgumentException {
+        if (count < 1) {
+            throw new IllegalArgumentException("Accessory suppliers count must be positive");
+        }
+
+        var accessoriesSuppliers = this.suppliers.accessoriesSuppliers;
+
+        synchronized (this.entitiesLock) {
+            while (accessoriesSuppliers.size() < count) {
+                var supplier = this.suppliers.newAccessorySupplier();
+                accessoriesSuppliers.add(supplier);
+                this.startPeriodic(supplier);
+            }
+
+            while (accessoriesSuppliers.size() > count) {
+                this.stopPeriodic(accessoriesSuppliers.remove(accessoriesSuppliers.size() - 1));
+            }
+        }
+    }
+
+    public void setDealersCount(int count)
+            throws IllegalArgumentException {
+        if (count < 1) {
+            throw new IllegalArgumentException("Dealers count must be positive");
+        }
+
+        var dealers = this.dealers.dealers;
+
+        synchronized (this.entitiesLock) {
+            while (dealers.size() < count) {
+                var dealer = this.dealers.newDealer();
+                dealers.add(dealer);
+                this.startPeriodic(dealer);
+            }
+
+            while (dealers.size() > count) {
+                this.stopPeriodic(dealers.remove(dealers.size() - 1));
+            }
+        }
+    }
+
+    // Called under entitiesLock; entities created before run are started by run itself
+    private void startPeriodic(Periodic periodic) {
+        if (this.periodicScheduler != null) {
+            if (this.isRunning) {
+                this.periodicScheduler.schedule(periodic);
+            }
+            return;
+        }
+
+        var thread = this.properties.threadMode.newThread(periodic);
+        this.periodicThreads.put(periodic, thread);
+        if (this.isRunning) {
+            thread.start();
+        }
+    }
+
+    private void stopPeriodic(Periodic periodic) {
+        if (this.periodicScheduler != null) {
+            this.periodicScheduler.cancel(periodic);
+            return;
+        }
+
+        var thread = this.periodicThreads.remove(periodic);
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -83,38 +291,224 @@ public class Factory implements Runnable {
         return this.workersPool;
     }
 
+    SalesLog getSalesLog() {
+        return this.salesLog;
+    }
+
+    public FactoryMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    // Only the first of concurrent or repeated calls shuts the factory down, the others return at once
     public void shutdown() {
-        if (!this.isRunning) {
-            return;
-        }
+        final ArrayList<Thread> threads;
+        synchronized (this.entitiesLock) {
+            if (!this.isRunning) {
+                return;
+            }
+            this.isRunning = false;
 
-        this.isRunning = false;
+            threads = new ArrayList<>(this.periodicThreads.values());
+            threads.addAll(this.threads);
+        }
 
         this.workersPool.stopAcceptingTasks();
 
-        for (var t : this.threads) {
+        if (this.periodicScheduler != null) {
+            this.periodicScheduler.shutdown();
+            this.periodicPool.shutdown();
+        }
+
+        for (var t : threads) {
             t.interrupt();
         }
 
-        for (var t : this.threads) {
+        for (var t : threads) {
             try {
                 t.join();
             } catch (InterruptedException ignored) {
             }
         }
 
-        this.workersPool.shutdown();
+        for (var task : this.workersPool.shutdown()) {
+            var kit = this.storageArea.controller.reclaimKit(task);
+            if (kit != null) {
+                this.unassembledKits.add(kit);
+            }
+        }
+        this.reclaimCutOffKits();
+        this.salesLog.stop();
+    }
+
+    // Kits that the controller reserved for a refused task and cars that never reached the cars storage
+    private void reclaimCutOffKits() {
+        this.unassembledKits.addAll(this.storageArea.controller.drainCutOffKits());
+        for (var car : this.storageArea.controller.drainCutOffCars()) {
+            this.unassembledKits.add(new Kit(car.getBody(), car.getMotor(), car.getAccessory()));
+        }
+    }
+
+    // Saves storages, unassembled kits and counters of a factory that is not running
+    public void snapshot(Path file)
+            throws IOException, IllegalStateException {
+        if (this.isRunning) {
+            throw new IllegalStateException("Factory must be stopped to take a snapshot");
+        }
+        this.reclaimCutOffKits();
+
+        var bodies = drain(this.storageArea.bodiesStorage);
+        var motors = drain(this.storageArea.motorsStorage);
+        var accessories = drain(this.storageArea.accessoriesStorage);
+        var cars = drain(this.storageArea.carsStorage);
+
+        try {
+            var carIds = new int[cars.size() * 4];
+            for (int i = 0; i < cars.size(); ++i) {
+                var car = cars.get(i);
+                carIds[4 * i] = car.getId();
+                carIds[4 * i + 1] = car.getBody().getId();
+                carIds[4 * i + 2] = car.getMotor().getId();
+                carIds[4 * i + 3] = car.getAccessory().getId();
+            }
+
+            var kitIds = new int[this.unassembledKits.size() * 3];
+            for (int i = 0; i < this.unassembledKits.size(); ++i) {
+                var kit = this.unassembledKits.get(i);
+                kitIds[3 * i] = kit.body.getId();
+                kitIds[3 * i + 1] = kit.motor.getId();
+                kitIds[3 * i + 2] = kit.accessory.getId();
+            }
+
+            new FactorySnapshot(
+                    this.storageArea.controller.getDispatchedCarsCount(),
+                    UniqueObject.getNextIds(),
+                    getIds(bodies),
+                    getIds(motors),
+                    getIds(accessories),
+                    carIds,
+                    kitIds
+            ).write(file);
+        } finally {
+            refill(this.storageArea.bodiesStorage, bodies);
+            refill(this.storageArea.motorsStorage, motors);
+            refill(this.storageArea.accessoriesStorage, accessories);
+            refill(this.storageArea.carsStorage, cars);
+        }
+    }
+
+    // Loads a snapshot into a factory that has not run yet; parts that no longer fit a storage are dropped
+    public void restore(Path file)
+            throws IOException, IllegalStateException {
+        if (this.isRunning) {
+            throw new IllegalStateException("Factory must not be running to restore a snapshot");
+        }
+
+        var snapshot = FactorySnapshot.read(file);
+
+        for (var nextId : snapshot.nextIds.entrySet()) {
+            try {
+                UniqueObject.advanceNextId(nextId.getKey(), nextId.getValue());
+            } catch (ClassNotFoundException e) {
+                logger.log(Level.WARNING, "Skipped the id counter of unknown {0}", nextId.getKey());
+            }
+        }
+
+        int dropped = 0;
+        for (int id : snapshot.bodyIds) {
+            dropped += this.storageArea.bodiesStorage.offer(new Body(id)) ? 0 : 1;
+        }
+        for (int id : snapshot.motorIds) {
+            dropped += this.storageArea.motorsStorage.offer(new Motor(id)) ? 0 : 1;
+        }
+        for (int id : snapshot.accessoryIds) {
+            dropped += this.storageArea.accessoriesStorage.offer(new Accessory(id)) ? 0 : 1;
+        }
+        for (int i = 0; i < snapshot.cars.length; i += 4) {
+            var car = new Car(
+                    snapshot.cars[i],
+                    new Body(snapshot.cars[i + 1]),
+                    new Motor(snapshot.cars[i + 2]),
+                    new Accessory(snapshot.cars[i + 3])
+            );
+            dropped += this.storageArea.carsStorage.offer(car) ? 0 : 1;
+        }
+        if (dropped > 0) {
+            logger.log(Level.WARNING, "Dropped {0} restored elements that did not fit the storages", dropped);
+        }
+
+        for (int i = 0; i < snapshot.kits.length; i += 3) {
+            this.unassembledKits.add(new Kit(
+                    new Body(snapshot.kits[i]),
+                    new Motor(snapshot.kits[i + 1]),
+                    new Accessory(snapshot.kits[i + 2])
+            ));
+        }
+
+        this.storageArea.controller.restoreDispatchedCarsCount(snapshot.dispatchedCarsCount);
+    }
+
+    private static <T extends UniqueObject> ArrayList<T> drain(Storage<T> storage) {
+        var elements = new ArrayList<T>(storage.getElementsCount());
+        storage.drainTo(elements, Integer.MAX_VALUE);
+
+        return elements;
+    }
+
+    private static <T extends UniqueObject> void refill(Storage<T> storage, ArrayList<T> elements) {
+        for (var element : elements) {
+            storage.offer(element);
+        }
+    }
+
+    private static int[] getIds(ArrayList<? extends UniqueObject> elements) {
+        var ids = new int[elements.size()];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = elements.get(i).getId();
+        }
+
+        return ids;
     }
 
     @Override
     public void run() {
+        this.start(true);
+    }
+
+    // Starts the controller and workers but no supplier or dealer, for a caller that drives the storages itself
+    public void runPipeline() {
+        this.start(false);
+    }
+
+    private void start(boolean isDrivingPeriodics) {
         if (this.isRunning) {
             return;
         }
 
-        this.isRunning = true;
-
         this.workersPool.run();
+        this.salesLog.start();
+
+        for (var kit : this.unassembledKits) {
+            this.storageArea.controller.assemble(kit);
+        }
+        this.unassembledKits.clear();
+
+        synchronized (this.entitiesLock) {
+            this.isRunning = true;
+
+            if (isDrivingPeriodics && this.periodicScheduler != null) {
+                this.periodicPool.run();
+                for (var periodic : this.getPeriodics()) {
+                    this.periodicScheduler.schedule(periodic);
+                }
+                this.periodicScheduler.start();
+            }
+
+            if (isDrivingPeriodics) {
+                for (var t : this.periodicThreads.values()) {
+                    t.start();
+                }
+            }
+        }
 
         for (var t : this.threads) {
             t.start();
@@ -128,19 +522,75 @@ public class Factory implements Runnable {
         public final Storage<Car> carsStorage;
         public final CarStorageController controller;
 
+        private final ReentrantLock kitLock = new ReentrantLock();
+
         private StorageArea(
                 Factory factory,
                 int bodiesStorageCapacity,
                 int motorsStorageCapacity,
                 int accessoriesStorageCapacity,
-                int carsStorageCapacity) {
-            this.bodiesStorage = new Storage<>(bodiesStorageCapacity);
-            this.motorsStorage = new Storage<>(motorsStorageCapacity);
-            this.accessoriesStorage = new Storage<>(accessoriesStorageCapacity);
-            this.carsStorage = new Storage<>(carsStorageCapacity);
+                int carsStorageCapacity,
+                StorageBackend.Type storageBackend) {
+            this.bodiesStorage = new Storage<>(bodiesStorageCapacity, storageBackend, PackedCodec.ofIds(Body::new));
+            this.motorsStorage = new Storage<>(motorsStorageCapacity, storageBackend, PackedCodec.ofIds(Motor::new));
+            this.accessoriesStorage = new Storage<>(
+                    accessoriesStorageCapacity, storageBackend, PackedCodec.ofIds(Accessory::new)
+            );
+            this.carsStorage = new Storage<>(carsStorageCapacity, storageBackend, PackedCodec.CARS);
             this.controller = new CarStorageController(factory);
         }
 
+        // The parts are logged as taken by the taker from inside each take, and as delivered again if they go back
+        public Kit tryReserveKit(int takerId) {
+            this.kitLock.lock();
+            try {
+                return this.isKitAvailable() ? this.takeKit(takerId) : null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } finally {
+                this.kitLock.unlock();
+            }
+        }
+
+        public boolean isKitAvailable() {
+            return !this.bodiesStorage.isEmpty()
+                    && !this.motorsStorage.isEmpty()
+                    && !this.accessoriesStorage.isEmpty();
+        }
+
+        // Parts taken before an interruption go back, so a kit is taken whole or not at all
+        private Kit takeKit(int takerId)
+                throws InterruptedException {
+            var body = takeReserved(this.bodiesStorage, takerId);
+            try {
+                var motor = takeReserved(this.motorsStorage, takerId);
+                try {
+                    return new Kit(body, motor, takeReserved(this.accessoriesStorage, takerId));
+                } catch (InterruptedException e) {
+                    this.motorsStorage.offer(
+                            motor, EventLog.recorder(EventType.PART_DELIVERED, takerId, this.motorsStorage.getId())
+                    );
+                    throw e;
+                }
+            } catch (InterruptedException e) {
+                this.bodiesStorage.offer(
+                        body, EventLog.recorder(EventType.PART_DELIVERED, takerId, this.bodiesStorage.getId())
+                );
+                throw e;
+            }
+        }
+
+        // When kit takers are the only consumers, a non-empty storage that yields nothing only lags behind a
+        // producer still publishing its part; when they are not, another consumer may have taken it. Either way
+        // the taker parks on the storage until a part comes instead of spinning on it
+        private static <T extends UniqueObject> T takeReserved(Storage<T> storage, int takerId)
+                throws InterruptedException {
+            var recorder = EventLog.recorder(EventType.PART_TAKEN, takerId, storage.getId());
+            var part = storage.poll(recorder);
+            return part != null ? part : storage.take(recorder);
+        }
+
         public int getMaximumPossibleCarsCount() {
             return Math.min(
                     this.bodiesStorage.getElementsCount(),
@@ -152,86 +602,246 @@ public class Factory implements Runnable {
         }
     }
 
+    public static final class Kit {
+        public final Body body;
+        public final Motor motor;
+        public final Accessory accessory;
+
+        private Kit(
+                Body body,
+                Motor motor,
+                Accessory accessory) {
+            this.body = body;
+            this.motor = motor;
+            this.accessory = accessory;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Kit (%s, %s, %s)", this.body, this.motor, this.accessory);
+        }
+    }
+
     public static final class Suppliers {
         private static final int DEFAULT_DELAY_MILLIS = 1000;
 
         public final PartsSupplier<Body> bodiesSupplier;
         public final PartsSupplier<Motor> motorsSupplier;
-        public final ArrayList<PartsSupplier<Accessory>> accessoriesSuppliers;
+        public final CopyOnWriteArrayList<PartsSupplier<Accessory>> accessoriesSuppliers;
+
+        private final StorageArea storageArea;
 
         private Suppliers(
                 StorageArea storageArea,
-                int accessorySuppliersCount) {
-            this.bodiesSupplier = new PartsSupplier<>(Body::new, storageArea.bodiesStorage, DEFAULT_DELAY_MILLIS);
-            this.motorsSupplier = new PartsSupplier<>(Motor::new, storageArea.motorsStorage, DEFAULT_DELAY_MILLIS);
-            this.accessoriesSuppliers = new ArrayList<>(accessorySuppliersCount);
+                int accessorySuppliersCount,
+                int bodySupplierBatchSize,
+                int motorSupplierBatchSize,
+                int accessorySupplierBatchSize) {
+            this.bodiesSupplier = new PartsSupplier<>(
+                    Body::new, storageArea.bodiesStorage, DEFAULT_DELAY_MILLIS, bodySupplierBatchSize
+            );
+            this.motorsSupplier = new PartsSupplier<>(
+                    Motor::new, storageArea.motorsStorage, DEFAULT_DELAY_MILLIS, motorSupplierBatchSize
+            );
+            this.storageArea = storageArea;
 
+            var accessoriesSuppliers = new ArrayList<PartsSupplier<Accessory>>(accessorySuppliersCount);
             for (int i = 0; i < accessorySuppliersCount; ++i) {
-                this.accessoriesSuppliers.add(
-                        new PartsSupplier<>(Accessory::new, storageArea.accessoriesStorage, DEFAULT_DELAY_MILLIS)
+                accessoriesSuppliers.add(
+                        new PartsSupplier<>(
+                                Accessory::new,
+                                storageArea.accessoriesStorage,
+                                DEFAULT_DELAY_MILLIS,
+                                accessorySupplierBatchSize
+                        )
                 );
             }
+            this.accessoriesSuppliers = new CopyOnWriteArrayList<>(accessoriesSuppliers);
+        }
+
+        // Takes after the first accessory supplier, so suppliers added at runtime keep the tuned delay and batch
+        private PartsSupplier<Accessory> newAccessorySupplier() {
+            var model = this.accessoriesSuppliers.get(0);
+            return new PartsSupplier<>(
+                    Accessory::new,
+                    this.storageArea.accessoriesStorage,
+                    model.getDelayMillis(),
+                    model.getBatchSize()
+            );
         }
     }
 
     public static final class Dealers {
         private static final int DEFAULT_DELAY_MILLIS = 2000;
 
-        public final ArrayList<Dealer> dealers;
+        public final CopyOnWriteArrayList<Dealer> dealers;
+
+        private final StorageArea storageArea;
+        private final SalesLog salesLog;
 
         private Dealers(
                 StorageArea storageArea,
+                SalesLog salesLog,
                 int dealersCount) {
-            this.dealers = new ArrayList<>(dealersCount);
+            this.storageArea = storageArea;
+            this.salesLog = salesLog;
+
+            var dealers = new ArrayList<Dealer>(dealersCount);
 
             for (int i = 0; i < dealersCount; ++i) {
-                var dealer = new Dealer(storageArea.controller, DEFAULT_DELAY_MILLIS);
-                this.dealers.add(dealer);
+                var dealer = new Dealer(storageArea.controller, salesLog, DEFAULT_DELAY_MILLIS);
+                dealers.add(dealer);
             }
+            this.dealers = new CopyOnWriteArrayList<>(dealers);
+        }
+
+        private Dealer newDealer() {
+            return new Dealer(this.storageArea.controller, this.salesLog, this.dealers.get(0).getDelayMillis());
         }
     }
 
     public static final class FactoryProperties {
+        private static final String DEFAULT_CONFIG_FILE = "/factory/config.properties";
+
         public final int bodyStorageSize;
         public final int motorStorageSize;
         public final int accessoryStorageSize;
         public final int carStorageSize;
+        public final int carStorageLowWaterMark;
         public final int accessorySuppliersCount;
         public final int workersCount;
+        public final ThreadPool.Scheduling workersScheduling;
+        public final WorkersSizer.Mode workersScaling;
+        public final int workersMin;
+        public final int workersMax;
         public final int dealersCount;
+        public final int bodySupplierBatchSize;
+        public final int motorSupplierBatchSize;
+        public final int accessorySupplierBatchSize;
+        public final StorageBackend.Type storageBackend;
+        public final ThreadMode threadMode;
+        public final PartsReservation partsReservation;
+        public final int viewUpdatesPerSecond;
+        public final SalesLog.Type salesLog;
+        public final String salesJournalFile;
+        public final SalesRecordEncoder.Format salesJournalFormat;
+        public final PeriodicScheduler.Mode periodicScheduling;
+        public final int periodicWorkersCount;
+
+        public static FactoryProperties load()
+                throws IOException {
+            return new FactoryProperties(readProperties(), DEFAULT_CONFIG_FILE);
+        }
+
+        public static FactoryProperties load(Path configFile)
+                throws IOException {
+            return new FactoryProperties(readProperties(configFile), configFile.toString());
+        }
 
-        private FactoryProperties()
+        // Raw properties behind load, for a caller that adjusts some of them before building a factory
+        public static Properties readProperties()
                 throws IOException {
-            final String configFile = "/factory/config.properties";
-            var propertiesStream = Factory.class.getResourceAsStream(configFile);
+            var propertiesStream = Factory.class.getResourceAsStream(DEFAULT_CONFIG_FILE);
             if (propertiesStream == null) {
-                throw new IOException(String.format("Failed to get \"%s\" as stream", configFile));
+                throw new IOException(String.format("Failed to get \"%s\" as stream", DEFAULT_CONFIG_FILE));
             }
 
             var properties = new Properties();
-            properties.load(propertiesStream);
+            try (propertiesStream) {
+                properties.load(propertiesStream);
+            }
+
+            return properties;
+        }
+
+        public static Properties readProperties(Path configFile)
+                throws IOException {
+            var properties = new Properties();
+            try (var propertiesStream = Files.newInputStream(configFile)) {
+                properties.load(propertiesStream);
+            }
 
+            return properties;
+        }
+
+        public static FactoryProperties fromProperties(Properties properties)
+                throws IOException {
+            return new FactoryProperties(properties, "properties");
+        }
+
+        private FactoryProperties(
+                Properties properties,
+                String configFile)
+                throws IOException {
             try {
                 this.bodyStorageSize = Integer.parseInt(properties.getProperty("BodyStorageSize"));
                 this.motorStorageSize = Integer.parseInt(properties.getProperty("MotorStorageSize"));
                 this.accessoryStorageSize = Integer.parseInt(properties.getProperty("AccessoryStorageSize"));
                 this.carStorageSize = Integer.parseInt(properties.getProperty("CarStorageSize"));
+                this.carStorageLowWaterMark = Integer.parseInt(properties.getProperty("CarStorageLowWaterMark", "1"));
                 this.accessorySuppliersCount = Integer.parseInt(properties.getProperty("AccessorySuppliersCount"));
                 this.workersCount = Integer.parseInt(properties.getProperty("WorkersCount"));
+                this.workersScheduling = ThreadPool.Scheduling.fromConfigName(
+                        properties.getProperty("WorkersScheduling", ThreadPool.Scheduling.SHARED_QUEUE.toString())
+                );
+                this.workersScaling = WorkersSizer.Mode.fromConfigName(
+                        properties.getProperty("WorkersScaling", WorkersSizer.Mode.FIXED.toString())
+                );
+                this.workersMin = Integer.parseInt(properties.getProperty("WorkersMin", "1"));
+                this.workersMax = Integer.parseInt(
+                        properties.getProperty("WorkersMax", String.valueOf(Math.max(this.workersCount, 1)))
+                );
                 this.dealersCount = Integer.parseInt(properties.getProperty("DealersCount"));
+                this.bodySupplierBatchSize = Integer.parseInt(properties.getProperty("BodySupplierBatchSize", "1"));
+                this.motorSupplierBatchSize = Integer.parseInt(properties.getProperty("MotorSupplierBatchSize", "1"));
+                this.accessorySupplierBatchSize = Integer.parseInt(
+                        properties.getProperty("AccessorySupplierBatchSize", "1")
+                );
+                this.storageBackend = StorageBackend.Type.fromConfigName(
+                        properties.getProperty("StorageBackend", StorageBackend.Type.MONITOR.toString())
+                );
+                this.threadMode = ThreadMode.fromConfigName(
+                        properties.getProperty("ThreadMode", ThreadMode.PLATFORM.toString())
+                );
+                this.partsReservation = PartsReservation.fromConfigName(
+                        properties.getProperty("PartsReservation", PartsReservation.KIT.toString())
+                );
+                this.viewUpdatesPerSecond = Integer.parseInt(properties.getProperty("ViewUpdatesPerSecond", "30"));
+                this.salesLog = SalesLog.Type.fromConfigName(
+                        properties.getProperty("SalesLog", SalesLog.Type.JOURNAL.toString())
+                );
+                this.salesJournalFile = properties.getProperty("SalesJournalFile", "log.0.0.txt");
+                this.salesJournalFormat = SalesRecordEncoder.Format.fromConfigName(
+                        properties.getProperty("SalesJournalFormat", SalesRecordEncoder.Format.TEXT.toString())
+                );
+                this.periodicScheduling = PeriodicScheduler.Mode.fromConfigName(
+                        properties.getProperty("PeriodicScheduling", PeriodicScheduler.Mode.THREADS.toString())
+                );
+                this.periodicWorkersCount = Integer.parseInt(properties.getProperty("PeriodicWorkersCount", "2"));
 
                 if (this.bodyStorageSize < 1
                         || this.motorStorageSize < 1
                         || this.accessoryStorageSize < 1
                         || this.carStorageSize < 1
+                        || this.carStorageLowWaterMark < 0
+                        || this.carStorageLowWaterMark > this.carStorageSize
                         || this.accessorySuppliersCount < 1
                         || this.workersCount < 1
-                        || this.dealersCount < 1) {
+                        || this.workersScaling == WorkersSizer.Mode.ELASTIC && (this.workersMin < 1
+                                || this.workersMin > this.workersCount
+                                || this.workersMax < this.workersCount)
+                        || this.dealersCount < 1
+                        || this.bodySupplierBatchSize < 1
+                        || this.motorSupplierBatchSize < 1
+                        || this.accessorySupplierBatchSize < 1
+                        || this.viewUpdatesPerSecond < 1
+                        || this.salesJournalFile.isBlank()
+                        || this.periodicWorkersCount < 1) {
                     throw new IOException(
                             String.format("Failed to load properties from \"%s\": bad format", configFile)
                     );
                 }
-            } catch (NumberFormatException | NullPointerException e) {
+            } catch (IllegalArgumentException | NullPointerException e) {
                 throw new IOException(String.format("Failed to load properties from \"%s\": bad format", configFile));
             }
         }
@@ -241,19 +851,46 @@ public class Factory implements Runnable {
             return String.format(
                     "Bodies Storage Capacity: %d\n" +
                             "Motors Storage Capacity: %d\n" +
-                            "Cars Storage Capacity: %d\n" +
                             "Accessories Storage Capacity: %d\n" +
+                            "Cars Storage Capacity: %d\n" +
+                            "Cars Storage Low-Water Mark: %d\n" +
                             "Accessories Suppliers Count: %d\n" +
                             "Workers Count: %d\n" +
+                            "Workers Scheduling: %s\n" +
+                            "Workers Scaling: %s (%d..%d)\n" +
                             "Dealers Count: %d\n" +
+                            "Supplier Batch Sizes (Body/Motor/Accessory): %d/%d/%d\n" +
+                            "Storage Backend: %s\n" +
+                            "Thread Mode: %s\n" +
+                            "Parts Reservation: %s\n" +
+                            "View Updates Per Second: %d\n" +
+                            "Sales Log: %s (%s, %s)\n" +
+                            "Periodic Scheduling: %s (%d workers)\n" +
                             "These values are set in \"config.properties\" file.",
                     this.bodyStorageSize,
                     this.motorStorageSize,
                     this.accessoryStorageSize,
                     this.carStorageSize,
+                    this.carStorageLowWaterMark,
                     this.accessorySuppliersCount,
                     this.workersCount,
-                    this.dealersCount
+                    this.workersScheduling,
+                    this.workersScaling,
+                    this.workersMin,
+                    this.workersMax,
+                    this.dealersCount,
+                    this.bodySupplierBatchSize,
+                    this.motorSupplierBatchSize,
+                    this.accessorySupplierBatchSize,
+                    this.storageBackend,
+                    this.threadMode,
+                    this.partsReservation,
+                    this.viewUpdatesPerSecond,
+                    this.salesLog,
+                    this.salesJournalFile,
+                    this.salesJournalFormat,
+                    this.periodicScheduling,
+                    this.periodicWorkersCount
             );
         }
     }
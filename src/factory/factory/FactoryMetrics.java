@@ -0,0 +1,52 @@
+package factory.factory;
+
+import factory.util.metrics.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Read-only view over the pipeline's histograms and rates, shared by the headless runner and the Status tab
+public final class FactoryMetrics {
+    private final Factory factory;
+    private final LinkedHashMap<String, Histogram> latencies = new LinkedHashMap<>();
+
+    FactoryMetrics(Factory factory) {
+        this.factory = factory;
+
+        var storageArea = factory.getStorageArea();
+        var controller = storageArea.controller;
+
+        this.latencies.put("Dealer request latency", controller.getRequestLatencyNanos());
+        this.latencies.put("Car assembly time", controller.getAssemblyTimeNanos());
+        this.latencies.put("Task queue wait", factory.getWorkersPool().getQueueWaitNanos());
+        this.latencies.put("Bodies storage put wait", storageArea.bodiesStorage.getPutWaitNanos());
+        this.latencies.put("Motors storage put wait", storageArea.motorsStorage.getPutWaitNanos());
+        this.latencies.put("Accessories storage put wait", storageArea.accessoriesStorage.getPutWaitNanos());
+        this.latencies.put("Cars storage put wait", storageArea.carsStorage.getPutWaitNanos());
+        this.latencies.put("Bodies storage take wait", storageArea.bodiesStorage.getTakeWaitNanos());
+        this.latencies.put("Motors storage take wait", storageArea.motorsStorage.getTakeWaitNanos());
+        this.latencies.put("Accessories storage take wait", storageArea.accessoriesStorage.getTakeWaitNanos());
+        this.latencies.put("Cars storage take wait", storageArea.carsStorage.getTakeWaitNanos());
+    }
+
+    // Histograms are in nanoseconds, in a stable display order
+    public Map<String, Histogram> getLatencies() {
+        return this.latencies;
+    }
+
+    public double getCarsPerSecond() {
+        return this.factory.getStorageArea().controller.getDispatchRate().getRatePerSecond();
+    }
+
+    public long getDroppedSalesCount() {
+        return this.factory.getSalesLog().getDroppedSalesCount();
+    }
+
+    public double getPartsPerSecond() {
+        var storageArea = this.factory.getStorageArea();
+
+        return storageArea.bodiesStorage.getAdditionRate().getRatePerSecond()
+                + storageArea.motorsStorage.getAdditionRate().getRatePerSecond()
+                + storageArea.accessoriesStorage.getAdditionRate().getRatePerSecond();
+    }
+}
@@ -0,0 +1,200 @@
+package factory.factory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * File layout, all big-endian: magic and version, the dispatched cars count, the id counters
+ * (count, then a length-prefixed UTF-8 class name and the next id each), then the id arrays of bodies,
+ * motors and accessories, cars (car, body, motor and accessory ids) and unassembled kits
+ * (body, motor and accessory ids), each prefixed with its elements count.
+ */
+final class FactorySnapshot {
+    static final int MAGIC = 0x46534e50; // "FSNP"
+    static final int VERSION = 1;
+
+    private static final int BUFFER_CAPACITY = 64 * 1024;
+
+    final int dispatchedCarsCount;
+    final Map<String, Integer> nextIds;
+    final int[] bodyIds;
+    final int[] motorIds;
+    final int[] accessoryIds;
+    final int[] cars;
+    final int[] kits;
+
+    FactorySnapshot(
+            int dispatchedCarsCount,
+            Map<String, Integer> nextIds,
+            int[] bodyIds,
+            int[] motorIds,
+            int[] accessoryIds,
+            int[] cars,
+            int[] kits) {
+        this.dispatchedCarsCount = dispatchedCarsCount;
+        this.nextIds = nextIds;
+        this.bodyIds = bodyIds;
+        this.motorIds = motorIds;
+        this.accessoryIds = accessoryIds;
+        this.cars = cars;
+        this.kits = kits;
+    }
+
+    // Written next to the target and moved over it, so a crash mid-write never leaves a torn snapshot behind
+    void write(Path file)
+            throws IOException {
+        var temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (var channel = FileChannel.open(
+                temporary,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var writer = new Writer(channel);
+
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putInt(this.dispatchedCarsCount);
+
+            writer.putInt(this.nextIds.size());
+            for (var nextId : this.nextIds.entrySet()) {
+                var name = nextId.getKey().getBytes(StandardCharsets.UTF_8);
+                writer.putInt(name.length);
+                writer.putBytes(name);
+                writer.putInt(nextId.getValue());
+            }
+
+            writer.putInts(this.bodyIds);
+            writer.putInts(this.motorIds);
+            writer.putInts(this.accessoryIds);
+            writer.putInts(this.cars);
+            writer.putInts(this.kits);
+
+            writer.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static FactorySnapshot read(Path file)
+            throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("\"%s\" is too big for a factory snapshot", file));
+            }
+
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException(String.format("\"%s\" is not a factory snapshot: bad magic", file));
+            }
+
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("\"%s\" has unsupported version %d", file, version));
+            }
+
+            int dispatchedCarsCount = buffer.getInt();
+
+            int countersCount = buffer.getInt();
+            var nextIds = new HashMap<String, Integer>(countersCount);
+            for (int i = 0; i < countersCount; ++i) {
+                var name = new byte[buffer.getInt()];
+                buffer.get(name);
+                nextIds.put(new String(name, StandardCharsets.UTF_8), buffer.getInt());
+            }
+
+            return new FactorySnapshot(
+                    dispatchedCarsCount,
+                    nextIds,
+                    getInts(buffer),
+                    getInts(buffer),
+                    getInts(buffer),
+                    getInts(buffer),
+                    getInts(buffer)
+            );
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException(String.format("\"%s\" is not a factory snapshot: truncated", file));
+        }
+    }
+
+    private static int[] getInts(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count > buffer.remaining() / Integer.BYTES) {
+            throw new BufferUnderflowException();
+        }
+
+        var ints = new int[count];
+        buffer.asIntBuffer().get(ints);
+        buffer.position(buffer.position() + ints.length * Integer.BYTES);
+
+        return ints;
+    }
+
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void putInt(int value)
+                throws IOException {
+            this.reserve(Integer.BYTES);
+            this.buffer.putInt(value);
+        }
+
+        private void putInts(int[] values)
+                throws IOException {
+            this.putInt(values.length);
+
+            int offset = 0;
+            while (offset < values.length) {
+                this.reserve(Integer.BYTES);
+                int length = Math.min(values.length - offset, this.buffer.remaining() / Integer.BYTES);
+
+                this.buffer.asIntBuffer().put(values, offset, length);
+                this.buffer.position(this.buffer.position() + length * Integer.BYTES);
+                offset += length;
+            }
+        }
+
+        private void putBytes(byte[] bytes)
+                throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                this.reserve(1);
+                int length = Math.min(bytes.length - offset, this.buffer.remaining());
+
+                this.buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        private void reserve(int bytes)
+                throws IOException {
+            if (this.buffer.remaining() < bytes) {
+                this.flush();
+            }
+        }
+
+        private void flush()
+                throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+}
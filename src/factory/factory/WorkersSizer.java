@@ -0,0 +1,130 @@
+package factory.factory;
+
+import factory.util.UniqueObject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Resizes the workers pool to the work it can actually do: time spent blocked on parts or on a full cars storage
+// does not count as useful, so waiting for suppliers never grows the pool
+public final class WorkersSizer extends UniqueObject implements Runnable {
+    private static final Logger logger = Logger.getLogger(WorkersSizer.class.getSimpleName());
+
+    private static final long PERIOD_MILLIS = 500;
+    private static final double TARGET_UTILIZATION = 0.75;
+    private static final int MAX_GROWTH_PER_PERIOD = 2;
+    private static final int MAX_SHRINK_PER_PERIOD = 1;
+
+    private final Factory factory;
+    private final int minWorkersCount;
+    private final int maxWorkersCount;
+
+    public WorkersSizer(
+            Factory factory,
+            int minWorkersCount,
+            int maxWorkersCount)
+            throws IllegalArgumentException {
+        if (minWorkersCount < 1 || maxWorkersCount < minWorkersCount) {
+            throw new IllegalArgumentException("Workers bounds must satisfy 0 < min <= max");
+        }
+
+        this.factory = factory;
+        this.minWorkersCount = minWorkersCount;
+        this.maxWorkersCount = maxWorkersCount;
+    }
+
+    private long getBlockedNanos() {
+        var storageArea = this.factory.getStorageArea();
+
+        return storageArea.bodiesStorage.getTakeWaitNanos().getSum()
+                + storageArea.motorsStorage.getTakeWaitNanos().getSum()
+                + storageArea.accessoriesStorage.getTakeWaitNanos().getSum()
+                + storageArea.carsStorage.getPutWaitNanos().getSum();
+    }
+
+    private int computeWorkersCount(
+            int currentCount,
+            double usefulWorkers,
+            int queuedTasks,
+            boolean isBehindDemand) {
+        int needed = (int) Math.ceil(usefulWorkers / TARGET_UTILIZATION);
+        if (queuedTasks > 0 && isBehindDemand) {
+            needed = Math.max(needed, currentCount + 1);
+        }
+
+        needed = Math.min(needed, currentCount + MAX_GROWTH_PER_PERIOD);
+        needed = Math.max(needed, currentCount - MAX_SHRINK_PER_PERIOD);
+
+        return Math.min(Math.max(needed, this.minWorkersCount), this.maxWorkersCount);
+    }
+
+    @Override
+    public void run() {
+        var pool = this.factory.getWorkersPool();
+        var controller = this.factory.getStorageArea().controller;
+        var carsStorage = this.factory.getStorageArea().carsStorage;
+
+        long lastNanos = System.nanoTime();
+        long lastBusyNanos = pool.getBusyNanos();
+        long lastBlockedNanos = this.getBlockedNanos();
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                TimeUnit.MILLISECONDS.sleep(PERIOD_MILLIS);
+
+                long now = System.nanoTime();
+                long busyNanos = pool.getBusyNanos();
+                long blockedNanos = this.getBlockedNanos();
+
+                long usefulNanos = Math.max(0, (busyNanos - lastBusyNanos) - (blockedNanos - lastBlockedNanos));
+                double usefulWorkers = (double) usefulNanos / (now - lastNanos);
+                boolean isBehindDemand = carsStorage.getElementsCount() < controller.getTargetCarsCount();
+
+                int currentCount = pool.getWorkersCount();
+                int newCount = this.computeWorkersCount(
+                        currentCount,
+                        usefulWorkers,
+                        pool.getQueuedTasksCount(),
+                        isBehindDemand
+                );
+                if (newCount != currentCount) {
+                    pool.resize(newCount);
+                }
+
+                lastNanos = now;
+                lastBusyNanos = busyNanos;
+                lastBlockedNanos = blockedNanos;
+            }
+        } catch (InterruptedException e) {
+            logger.log(Level.INFO, "{0} was interrupted", this);
+        }
+    }
+
+    public enum Mode {
+        FIXED("Fixed"),
+        ELASTIC("Elastic");
+
+        private final String configName;
+
+        Mode(String configName) {
+            this.configName = configName;
+        }
+
+        public static Mode fromConfigName(String configName)
+                throws IllegalArgumentException {
+            for (var mode : Mode.values()) {
+                if (mode.configName.equals(configName)) {
+                    return mode;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("Unknown workers scaling \"%s\"", configName));
+        }
+
+        @Override
+        public String toString() {
+            return this.configName;
+        }
+    }
+}
@@ -19,6 +19,29 @@ public class Car extends UniqueObject {
         this.accessory = accessory;
     }
 
+    public Car(
+            int id,
+            Body body,
+            Motor motor,
+            Accessory accessory) {
+        super(id);
+        this.body = body;
+        this.motor = motor;
+        this.accessory = accessory;
+    }
+
+    public Body getBody() {
+        return this.body;
+    }
+
+    public Motor getMotor() {
+        return this.motor;
+    }
+
+    public Accessory getAccessory() {
+        return this.accessory;
+    }
+
     @Override
     public String toString() {
         return String.format("Auto %d (%s, %s, %s)", this.getId(), this.body, this.motor, this.accessory);
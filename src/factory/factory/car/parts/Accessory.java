@@ -3,4 +3,11 @@ package factory.factory.car.parts;
 import factory.util.UniqueObject;
 
 public class Accessory extends UniqueObject {
+
+    public Accessory() {
+    }
+
+    public Accessory(int id) {
+        super(id);
+    }
 }
@@ -3,4 +3,11 @@ package factory.factory.car.parts;
 import factory.util.UniqueObject;
 
 public class Body extends UniqueObject {
+
+    public Body() {
+    }
+
+    public Body(int id) {
+        super(id);
+    }
 }
@@ -3,4 +3,11 @@ package factory.factory.car.parts;
 import factory.util.UniqueObject;
 
 public class Motor extends UniqueObject {
+
+    public Motor() {
+    }
+
+    public Motor(int id) {
+        super(id);
+    }
 }
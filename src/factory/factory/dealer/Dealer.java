@@ -1,24 +1,37 @@
 package factory.factory.dealer;
 
+import factory.factory.car.Car;
+import factory.factory.events.EventLog;
+import factory.factory.events.EventType;
 import factory.factory.storage.CarStorageController;
 import factory.util.Periodic;
 import factory.util.UniqueObject;
+import factory.util.jfr.CarSoldEvent;
+import factory.util.trace.TraceEvent;
+import factory.util.trace.Tracer;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class Dealer extends UniqueObject implements Periodic {
     private static final Logger logger = Logger.getLogger(Dealer.class.getSimpleName());
-    private static final Logger salesLogger = Logger.getLogger(Dealer.class.getSimpleName() + "Sales");
 
     private final CarStorageController carStorageController;
+    private final SalesLog salesLog;
     private final AtomicInteger delayMillis;
 
+    // Used by tryRunOnce only, which a scheduler never runs concurrently for the same dealer
+    private boolean isRequestOpen = false;
+    private long requestedAt;
+
     public Dealer(
             CarStorageController carStorageController,
+            SalesLog salesLog,
             int delayMillis) {
         this.carStorageController = carStorageController;
+        this.salesLog = salesLog;
         this.delayMillis = new AtomicInteger(delayMillis);
     }
 
@@ -37,20 +50,38 @@ public class Dealer extends UniqueObject implements Periodic {
         return String.format("Dealer %d", this.getId());
     }
 
+    @Override
+    public boolean tryRunOnce() {
+        if (!this.isRequestOpen) {
+            Tracer.record(TraceEvent.CAR_REQUESTED, this.getId(), this.carStorageController.getId());
+            this.requestedAt = this.carStorageController.openRequest();
+            this.isRequestOpen = true;
+        }
+
+        var newCar = this.carStorageController.pollRequestedCar(this.requestedAt, this.recorder());
+        if (newCar == null) {
+            return false;
+        }
+
+        this.isRequestOpen = false;
+        this.sell(newCar);
+        return true;
+    }
+
+    @Override
+    public void abandon() {
+        if (this.isRequestOpen) {
+            this.carStorageController.cancelRequest();
+            this.isRequestOpen = false;
+        }
+    }
+
     @Override
     public void run() {
         while (true) {
             try {
-                logger.log(
-                        Level.FINE, "{0} is requesting a new car from {1}",
-                        new Object[] { this, this.carStorageController }
-                );
-                var newCar = this.carStorageController.requestNewCar();
-                logger.log(
-                        Level.FINE, "{0} got {1} form {2}",
-                        new Object[] { this, newCar, this.carStorageController }
-                );
-                salesLogger.log(Level.INFO, "{0}: {1}", new Object[] { this, newCar });
+                Tracer.record(TraceEvent.CAR_REQUESTED, this.getId(), this.carStorageController.getId());
+                this.sell(this.carStorageController.requestNewCar(this.recorder()));
             } catch (InterruptedException e) {
                 logger.log(
                         Level.WARNING,
@@ -68,4 +99,15 @@ public class Dealer extends UniqueObject implements Periodic {
             }
         }
     }
+
+    private void sell(Car newCar) {
+        Tracer.record(TraceEvent.CAR_RECEIVED, this.getId(), newCar.getId(), this.carStorageController.getId());
+        CarSoldEvent.commit(this.getId(), newCar.getId());
+        this.salesLog.record(this, newCar);
+    }
+
+    // Sales are logged from inside the take, so they come in the order the cars storage handed the cars out
+    private Consumer<UniqueObject> recorder() {
+        return EventLog.recorder(EventType.CAR_SOLD, this.getId(), this.carStorageController.getCarsStorageId());
+    }
 }
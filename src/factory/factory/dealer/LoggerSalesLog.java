@@ -0,0 +1,15 @@
+package factory.factory.dealer;
+
+import factory.factory.car.Car;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class LoggerSalesLog implements SalesLog {
+    private static final Logger salesLogger = Logger.getLogger(Dealer.class.getSimpleName() + "Sales");
+
+    @Override
+    public void record(Dealer dealer, Car car) {
+        salesLogger.log(Level.INFO, "{0}: {1}", new Object[] { dealer, car });
+    }
+}
@@ -0,0 +1,112 @@
+package factory.factory.dealer;
+
+import factory.factory.car.Car;
+import factory.util.BatchedFileWriter;
+import factory.util.SalesRecordEncoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Dealers never wait for the disk: sales the writer cannot keep up with, or that come after a write failed, are dropped
+public final class SalesJournal implements SalesLog {
+    private static final Logger logger = Logger.getLogger(SalesJournal.class.getSimpleName());
+
+    static final int MAX_PENDING_SALES = 16 * 1024;
+
+    private final SalesRecordEncoder.Format format;
+    private final BatchedFileWriter<Sale> writer;
+
+    public SalesJournal(Path path) {
+        this(path, SalesRecordEncoder.Format.TEXT);
+    }
+
+    public SalesJournal(
+            Path path,
+            SalesRecordEncoder.Format format) {
+        this.format = format;
+        this.writer = new BatchedFileWriter<>(SalesJournal.class.getSimpleName(), path, MAX_PENDING_SALES, false);
+    }
+
+    @Override
+    public void record(Dealer dealer, Car car) {
+        this.writer.append(new Sale(System.currentTimeMillis(), dealer, car));
+    }
+
+    @Override
+    public void start() {
+        try {
+            this.writer.start(new SaleEncoder(this.format.createEncoder()));
+        } catch (IOException e) {
+            logger.log(
+                    Level.SEVERE,
+                    "Failed to open sales journal {0}: {1}",
+                    new Object[] { this.writer.getPath(), e.getMessage() }
+            );
+        }
+    }
+
+    @Override
+    public void stop() {
+        this.writer.stop();
+    }
+
+    @Override
+    public long getDroppedSalesCount() {
+        return this.writer.getDroppedCount();
+    }
+
+    private static final class SaleEncoder implements BatchedFileWriter.Encoder<Sale> {
+        private final SalesRecordEncoder encoder;
+
+        private SaleEncoder(SalesRecordEncoder encoder) {
+            this.encoder = encoder;
+        }
+
+        @Override
+        public int getMaxRecordBytes() {
+            return this.encoder.getMaxRecordBytes();
+        }
+
+        @Override
+        public void encodeHeader(ByteBuffer buffer) {
+            this.encoder.encodeHeader(buffer);
+        }
+
+        @Override
+        public void encode(ByteBuffer buffer, Sale sale) {
+            this.encoder.encode(
+                    buffer,
+                    sale.timestampMillis,
+                    sale.dealerId,
+                    sale.carId,
+                    sale.bodyId,
+                    sale.motorId,
+                    sale.accessoryId
+            );
+        }
+    }
+
+    private static final class Sale {
+        private final long timestampMillis;
+        private final int dealerId;
+        private final int carId;
+        private final int bodyId;
+        private final int motorId;
+        private final int accessoryId;
+
+        private Sale(
+                long timestampMillis,
+                Dealer dealer,
+                Car car) {
+            this.timestampMillis = timestampMillis;
+            this.dealerId = dealer.getId();
+            this.carId = car.getId();
+            this.bodyId = car.getBody().getId();
+            this.motorId = car.getMotor().getId();
+            this.accessoryId = car.getAccessory().getId();
+        }
+    }
+}
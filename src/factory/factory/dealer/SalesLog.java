@@ -0,0 +1,47 @@
+package factory.factory.dealer;
+
+import factory.factory.car.Car;
+
+public interface SalesLog {
+
+    void record(Dealer dealer, Car car);
+
+    default void start() {
+    }
+
+    default void stop() {
+    }
+
+    // Sales recorded but never written, for logs that drop sales rather than hold up dealers
+    default long getDroppedSalesCount() {
+        return 0;
+    }
+
+    enum Type {
+        NONE("None"),
+        LOGGER("Logger"),
+        JOURNAL("Journal");
+
+        private final String configName;
+
+        Type(String configName) {
+            this.configName = configName;
+        }
+
+        public static Type fromConfigName(String configName)
+                throws IllegalArgumentException {
+            for (var type : Type.values()) {
+                if (type.configName.equals(configName)) {
+                    return type;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("Unknown sales log \"%s\"", configName));
+        }
+
+        @Override
+        public String toString() {
+            return this.configName;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package factory.factory.events;
+
+import factory.factory.Factory;
+import factory.util.BatchedFileWriter;
+import factory.util.UniqueObject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * Append-only log of every part delivery and take, assembly and sale, meant to be replayed offline.
+ * File layout, all big-endian: magic, version and the ids of the bodies, motors, accessories and cars
+ * storages, followed by fixed-width records of sequence number and nanos since opening (longs), then
+ * event type, actor id, object id and storage id (ints). Each event takes its sequence number inside the storage
+ * operation it records, under the backend's lock, so sequence order is the order every storage saw its additions
+ * and removals in. Sequence numbers are dense, but records reach the file in the order the writer drains them,
+ * so readers must order them by sequence. Events the writer cannot keep up with are dropped, leaving holes.
+ */
+public final class EventLog {
+    private static final Logger logger = Logger.getLogger(EventLog.class.getSimpleName());
+
+    public static final int MAGIC = 0x46455654; // "FEVT"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 6 * Integer.BYTES;
+    public static final int RECORD_BYTES = 2 * Long.BYTES + 4 * Integer.BYTES;
+
+    private static final int MAX_PENDING_EVENTS = 64 * 1024;
+
+    private static volatile EventLog current;
+
+    private final long openedAtNanos = System.nanoTime();
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    // A daemon, or the process would never exit and never run the shutdown hook that closes the log
+    private final BatchedFileWriter<Event> writer;
+
+    private EventLog(Path path) {
+        this.writer = new BatchedFileWriter<>(EventLog.class.getSimpleName(), path, MAX_PENDING_EVENTS, true);
+    }
+
+    // Events are recorded from then on by every factory in the process; the storage ids let a replay tell parts apart
+    public static synchronized void open(Path path, Factory.StorageArea storageArea)
+            throws IOException, IllegalStateException {
+        if (EventLog.current != null) {
+            throw new IllegalStateException("Event log is already open");
+        }
+
+        var log = new EventLog(path);
+        log.writer.start(new EventEncoder(
+                storageArea.bodiesStorage.getId(),
+                storageArea.motorsStorage.getId(),
+                storageArea.accessoriesStorage.getId(),
+                storageArea.carsStorage.getId()
+        ));
+        EventLog.current = log;
+    }
+
+    // Writes out every event recorded so far and closes the file
+    public static synchronized void close() {
+        var log = EventLog.current;
+        if (log == null) {
+            return;
+        }
+
+        EventLog.current = null;
+        log.writer.stop();
+
+        long droppedCount = log.writer.getDroppedCount();
+        if (droppedCount > 0) {
+            logger.log(
+                    Level.WARNING,
+                    "{0} events were dropped from {1}",
+                    new Object[] { droppedCount, log.writer.getPath() }
+            );
+        }
+    }
+
+    // Observer for the storage calls of one actor that records each element they move; null while the log is closed
+    public static Consumer<UniqueObject> recorder(EventType type, int actorId, int storageId) {
+        var log = EventLog.current;
+        if (log == null) {
+            return null;
+        }
+
+        return element -> log.append(type, actorId, element.getId(), storageId);
+    }
+
+    private void append(EventType type, int actorId, int objectId, int storageId) {
+        long nanos = System.nanoTime() - this.openedAtNanos;
+        this.writer.append(new Event(this.nextSequence.getAndIncrement(), nanos, type, actorId, objectId, storageId));
+    }
+
+    private static final class EventEncoder implements BatchedFileWriter.Encoder<Event> {
+        private final int[] storageIds;
+
+        private EventEncoder(int... storageIds) {
+            this.storageIds = storageIds;
+        }
+
+        @Override
+        public int getMaxRecordBytes() {
+            return RECORD_BYTES;
+        }
+
+        @Override
+        public void encodeHeader(ByteBuffer buffer) {
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            for (var storageId : this.storageIds) {
+                buffer.putInt(storageId);
+            }
+        }
+
+        @Override
+        public void encode(ByteBuffer buffer, Event event) {
+            buffer.putLong(event.sequence);
+            buffer.putLong(event.nanos);
+            buffer.putInt(event.type.ordinal());
+            buffer.putInt(event.actorId);
+            buffer.putInt(event.objectId);
+            buffer.putInt(event.storageId);
+        }
+    }
+
+    private static final class Event {
+        private final long sequence;
+        private final long nanos;
+        private final EventType type;
+        private final int actorId;
+        private final int objectId;
+        private final int storageId;
+
+        private Event(
+                long sequence,
+                long nanos,
+                EventType type,
+                int actorId,
+                int objectId,
+                int storageId) {
+            this.sequence = sequence;
+            this.nanos = nanos;
+            this.type = type;
+            this.actorId = actorId;
+            this.objectId = objectId;
+            this.storageId = storageId;
+        }
+    }
+}
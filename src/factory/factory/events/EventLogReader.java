@@ -0,0 +1,132 @@
+package factory.factory.events;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Loads a whole event log and puts its records back in sequence order
+public final class EventLogReader {
+    private final Path path;
+    private final int bodiesStorageId;
+    private final int motorsStorageId;
+    private final int accessoriesStorageId;
+    private final int carsStorageId;
+
+    // Indexed by sequence number; a record lost to a crash leaves a hole marked with a negative type
+    private final long[] nanos;
+    private final int[] types;
+    private final int[] actorIds;
+    private final int[] objectIds;
+    private final int[] storageIds;
+
+    public EventLogReader(Path path)
+            throws IOException {
+        this.path = path;
+
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < EventLog.HEADER_BYTES) {
+                throw new IOException(String.format("\"%s\" is not an event log: too short", path));
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(String.format("\"%s\" is too big to be replayed at once", path));
+            }
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != EventLog.MAGIC) {
+                throw new IOException(String.format("\"%s\" is not an event log: bad magic", path));
+            }
+            int version = buffer.getInt();
+            if (version != EventLog.VERSION) {
+                throw new IOException(String.format("\"%s\" has unsupported version %d", path, version));
+            }
+
+            this.bodiesStorageId = buffer.getInt();
+            this.motorsStorageId = buffer.getInt();
+            this.accessoriesStorageId = buffer.getInt();
+            this.carsStorageId = buffer.getInt();
+
+            // A trailing partial record is left over from an interrupted write and is ignored
+            int recordsCount = (int) ((size - EventLog.HEADER_BYTES) / EventLog.RECORD_BYTES);
+
+            long maxSequence = -1;
+            for (int i = 0; i < recordsCount; ++i) {
+                maxSequence = Math.max(maxSequence, buffer.getLong(EventLog.HEADER_BYTES + i * EventLog.RECORD_BYTES));
+            }
+            if (maxSequence >= Integer.MAX_VALUE) {
+                throw new IOException(String.format("\"%s\" has too many events to be replayed at once", path));
+            }
+
+            int slotsCount = (int) (maxSequence + 1);
+            this.nanos = new long[slotsCount];
+            this.types = new int[slotsCount];
+            this.actorIds = new int[slotsCount];
+            this.objectIds = new int[slotsCount];
+            this.storageIds = new int[slotsCount];
+            Arrays.fill(this.types, -1);
+
+            for (int i = 0; i < recordsCount; ++i) {
+                int offset = EventLog.HEADER_BYTES + i * EventLog.RECORD_BYTES;
+                int slot = (int) buffer.getLong(offset);
+                if (slot < 0) {
+                    throw new IOException(String.format("\"%s\" has a corrupt record at %d", path, offset));
+                }
+
+                this.nanos[slot] = buffer.getLong(offset + Long.BYTES);
+                this.types[slot] = buffer.getInt(offset + 2 * Long.BYTES);
+                this.actorIds[slot] = buffer.getInt(offset + 2 * Long.BYTES + Integer.BYTES);
+                this.objectIds[slot] = buffer.getInt(offset + 2 * Long.BYTES + 2 * Integer.BYTES);
+                this.storageIds[slot] = buffer.getInt(offset + 2 * Long.BYTES + 3 * Integer.BYTES);
+            }
+        }
+    }
+
+    public int getBodiesStorageId() {
+        return this.bodiesStorageId;
+    }
+
+    public int getMotorsStorageId() {
+        return this.motorsStorageId;
+    }
+
+    public int getAccessoriesStorageId() {
+        return this.accessoriesStorageId;
+    }
+
+    public int getCarsStorageId() {
+        return this.carsStorageId;
+    }
+
+    public void forEach(EventVisitor visitor)
+            throws IOException {
+        for (int sequence = 0; sequence < this.types.length; ++sequence) {
+            if (this.types[sequence] < 0) {
+                continue;
+            }
+
+            final EventType type;
+            try {
+                type = EventType.fromCode(this.types[sequence]);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(String.format("\"%s\": %s", this.path, e.getMessage()));
+            }
+
+            visitor.visit(
+                    sequence,
+                    this.nanos[sequence],
+                    type,
+                    this.actorIds[sequence],
+                    this.objectIds[sequence],
+                    this.storageIds[sequence]
+            );
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EventLogReader(%s, %d events)", this.path, this.types.length);
+    }
+}
@@ -0,0 +1,19 @@
+package factory.factory.events;
+
+public enum EventType {
+    PART_DELIVERED,
+    PART_TAKEN,
+    CAR_ASSEMBLED,
+    CAR_SOLD;
+
+    private static final EventType[] values = EventType.values();
+
+    static EventType fromCode(int code)
+            throws IllegalArgumentException {
+        if (code < 0 || code >= values.length) {
+            throw new IllegalArgumentException(String.format("Unknown event type %d", code));
+        }
+
+        return values[code];
+    }
+}
@@ -0,0 +1,8 @@
+package factory.factory.events;
+
+@FunctionalInterface
+public interface EventVisitor {
+
+    // The actor is the supplier, assembly task or dealer that caused the event; the object is the part or car
+    void visit(long sequence, long nanos, EventType type, int actorId, int objectId, int storageId);
+}
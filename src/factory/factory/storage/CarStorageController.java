@@ -5,19 +5,65 @@ import factory.factory.car.Car;
 import factory.factory.car.parts.Accessory;
 import factory.factory.car.parts.Body;
 import factory.factory.car.parts.Motor;
+import factory.factory.events.EventLog;
+import factory.factory.events.EventType;
 import factory.ui.util.Alterable;
 import factory.ui.util.View;
 import factory.util.UniqueObject;
+import factory.util.jfr.CarAssembledEvent;
+import factory.util.jfr.PartConsumedEvent;
+import factory.util.metrics.Histogram;
+import factory.util.metrics.RateMeter;
+import factory.util.trace.TraceEvent;
+import factory.util.trace.Tracer;
 
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public final class CarStorageController extends UniqueObject implements Alterable {
+public final class CarStorageController extends UniqueObject implements Runnable, Alterable {
     private static final Logger logger = Logger.getLogger(CarStorageController.class.getSimpleName());
 
+    private static final long CONTROL_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final double SMOOTHING_FACTOR = 0.2;
+
     private final Factory factory;
 
-    private int carsDispatched = 0;
+    private final AtomicInteger carsDispatched = new AtomicInteger();
+    private final AtomicInteger requestsCount = new AtomicInteger();
+    private final AtomicInteger pendingRequestsCount = new AtomicInteger();
+    private final AtomicInteger assemblingCarsCount = new AtomicInteger();
+
+    // Kits reserved for tasks that a stopped pool refused, and cars whose tasks a shutdown interrupted while they
+    // waited for room in the cars storage
+    private final ConcurrentLinkedQueue<Factory.Kit> cutOffKits = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Car> cutOffCars = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger assembledCarsCount = new AtomicInteger();
+    private final AtomicLong assemblyNanos = new AtomicLong();
+    private final Histogram requestLatencyNanos = new Histogram();
+    private final Histogram assemblyTimeNanos = new Histogram();
+    private final RateMeter dispatchRate = new RateMeter();
+
+    private volatile Thread productionThread;
+    private volatile boolean isWaitingForParts = false;
+    private LongSupplier clock = System::nanoTime;
+
+    // Owned by whichever single thread drives the control loop
+    private boolean isEstimating = false;
+    private long lastEstimateNanos;
+    private int lastRequestsCount = 0;
+    private int lastAssembledCount = 0;
+    private long lastAssemblyNanos = 0;
+    private double demandPerSecond = 0;
+    private double assemblySeconds = 0;
 
     private View<? extends Alterable> view;
 
@@ -25,153 +71,440 @@ public final class CarStorageController extends UniqueObject implements Alterabl
         this.factory = factory;
     }
 
+    // Lets a simulation run the controller on a virtual clock; must be set before the first request
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
     public Car requestNewCar()
             throws InterruptedException {
-        logger.log(Level.FINE, "{0} received a request for a new car", this);
-
-        synchronized (this.factory.getStorageArea().carsStorage) {
-            if (this.factory.getStorageArea().carsStorage.isEmpty()) {
-                int upperBound = this.factory.getStorageArea().getMaximumPossibleCarsCount()
-                        - this.factory.getWorkersPool().getQueuedTasksCount();
-                if (upperBound <= 0) {
-                    upperBound = 1;
+        return this.requestNewCar(null);
+    }
+
+    // The observer is called with the car inside the take from the cars storage
+    public Car requestNewCar(Consumer<? super Car> observer)
+            throws InterruptedException {
+        var carsStorage = this.factory.getStorageArea().carsStorage;
+
+        long requestedAt = this.openRequest();
+        try {
+            if (carsStorage.isEmpty()) {
+                Tracer.record(TraceEvent.REQUEST_WAITING, this.getId(), this.pendingRequestsCount.get());
+            }
+
+            var newCar = carsStorage.take(observer);
+            this.completeRequest(requestedAt);
+
+            return newCar;
+        } finally {
+            this.closeRequest();
+        }
+    }
+
+    // Non-blocking counterpart of requestNewCar: a request is opened once and then polled until it returns a car
+    public long openRequest() {
+        this.requestsCount.incrementAndGet();
+        this.pendingRequestsCount.incrementAndGet();
+        this.wakeProduction();
+
+        return this.clock.getAsLong();
+    }
+
+    public Car pollRequestedCar(long requestedAt) {
+        return this.pollRequestedCar(requestedAt, null);
+    }
+
+    public Car pollRequestedCar(long requestedAt, Consumer<? super Car> observer) {
+        var newCar = this.factory.getStorageArea().carsStorage.poll(observer);
+        if (newCar == null) {
+            return null;
+        }
+
+        this.completeRequest(requestedAt);
+        this.closeRequest();
+
+        return newCar;
+    }
+
+    // Withdraws a request opened by openRequest that will never be polled again
+    public void cancelRequest() {
+        this.closeRequest();
+    }
+
+    private void completeRequest(long requestedAt) {
+        this.requestLatencyNanos.record(this.clock.getAsLong() - requestedAt);
+        this.dispatchRate.mark();
+
+        this.carsDispatched.incrementAndGet();
+        if (this.view != null) {
+            this.view.update();
+        }
+    }
+
+    private void closeRequest() {
+        this.pendingRequestsCount.decrementAndGet();
+        this.wakeProduction();
+    }
+
+    public int getDispatchedCarsCount() {
+        return this.carsDispatched.get();
+    }
+
+    public int getAssembledCarsCount() {
+        return this.assembledCarsCount.get();
+    }
+
+    public void restoreDispatchedCarsCount(int count) {
+        this.carsDispatched.set(count);
+    }
+
+    // Resumes a kit that was reserved by an earlier run but never assembled
+    public void assemble(Factory.Kit kit) {
+        this.execute(new CarAssemblyTask(this, kit), this.factory.getWorkersPool());
+    }
+
+    // Gives back the kit held by a task that a shut down pool never started
+    public Factory.Kit reclaimKit(Runnable task) {
+        if (!(task instanceof CarAssemblyTask) || ((CarAssemblyTask) task).controller != this) {
+            return null;
+        }
+
+        this.assemblingCarsCount.decrementAndGet();
+        return ((CarAssemblyTask) task).kit;
+    }
+
+    public ArrayList<Factory.Kit> drainCutOffKits() {
+        var kits = new ArrayList<Factory.Kit>();
+        Factory.Kit kit;
+        while ((kit = this.cutOffKits.poll()) != null) {
+            kits.add(kit);
+        }
+
+        return kits;
+    }
+
+    public ArrayList<Car> drainCutOffCars() {
+        var cars = new ArrayList<Car>();
+        Car car;
+        while ((car = this.cutOffCars.poll()) != null) {
+            cars.add(car);
+        }
+
+        return cars;
+    }
+
+    public double getMeanRequestMillis() {
+        return this.requestLatencyNanos.getMean() / 1e6;
+    }
+
+    public double getMaxRequestMillis() {
+        return this.requestLatencyNanos.getMax() / 1e6;
+    }
+
+    public Histogram getRequestLatencyNanos() {
+        return this.requestLatencyNanos;
+    }
+
+    public Histogram getAssemblyTimeNanos() {
+        return this.assemblyTimeNanos;
+    }
+
+    public RateMeter getDispatchRate() {
+        return this.dispatchRate;
+    }
+
+    public int getCarsStorageId() {
+        return this.factory.getStorageArea().carsStorage.getId();
+    }
+
+    public int getPendingRequestsCount() {
+        return this.pendingRequestsCount.get();
+    }
+
+    public int getAssemblingCarsCount() {
+        return this.assemblingCarsCount.get();
+    }
+
+    public int getTargetCarsCount() {
+        int capacity = this.factory.getStorageArea().carsStorage.getCapacity();
+        int demandReserve = (int) Math.ceil(this.demandPerSecond * this.assemblySeconds);
+        int reserve = Math.min(Math.max(this.factory.getProperties().carStorageLowWaterMark, demandReserve), capacity);
+
+        return this.pendingRequestsCount.get() + reserve;
+    }
+
+    @Override
+    public void run() {
+        var storageArea = this.factory.getStorageArea();
+        storageArea.bodiesStorage.addAdditionListener(this::onPartAdded);
+        storageArea.motorsStorage.addAdditionListener(this::onPartAdded);
+        storageArea.accessoriesStorage.addAdditionListener(this::onPartAdded);
+
+        this.productionThread = Thread.currentThread();
+        var executor = this.factory.getWorkersPool();
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                this.estimateDemand();
+
+                if (this.isProductionNeeded() && this.tryDispatch(executor)) {
+                    continue;
                 }
 
-                logger.log(
-                        Level.FINE, "{0} dispatches {1} car assembly tasks ({2} queued)",
-                        new Object[] { this, upperBound, this.factory.getWorkersPool().getQueuedTasksCount() }
-                );
-                for (int i = 0; i < upperBound; i += 1) {
-                    this.factory.getWorkersPool().execute(new CarAssemblyTask(this.factory.getStorageArea()));
+                this.isWaitingForParts = this.isProductionNeeded();
+                if (!this.isWaitingForParts || !this.tryDispatch(executor)) {
+                    LockSupport.parkNanos(this, CONTROL_PERIOD_NANOS);
                 }
+                this.isWaitingForParts = false;
+            }
+        } catch (IllegalStateException e) {
+            logger.log(Level.INFO, "{0} stopped: {1}", new Object[] { this, e.getMessage() });
+        }
+    }
+
+    // One pass of the production loop that never waits, for a caller driving the controller itself: assembly tasks
+    // go to executor while they are needed and parts allow; returns whether production is left waiting for parts
+    public boolean control(Executor executor) {
+        this.estimateDemand();
+
+        while (this.isProductionNeeded()) {
+            if (!this.tryDispatch(executor)) {
+                return true;
             }
+        }
+
+        return false;
+    }
+
+    private void estimateDemand() {
+        long now = this.clock.getAsLong();
+        if (!this.isEstimating) {
+            this.isEstimating = true;
+            this.lastEstimateNanos = now;
+            return;
+        }
+        if (now - this.lastEstimateNanos < CONTROL_PERIOD_NANOS) {
+            return;
+        }
+
+        int requests = this.requestsCount.get();
+        int assembled = this.assembledCarsCount.get();
+        long assemblyNanos = this.assemblyNanos.get();
+
+        double requestsPerSecond = (requests - this.lastRequestsCount) * 1e9 / (now - this.lastEstimateNanos);
+        this.demandPerSecond += SMOOTHING_FACTOR * (requestsPerSecond - this.demandPerSecond);
+        if (assembled > this.lastAssembledCount) {
+            double meanSeconds = (assemblyNanos - this.lastAssemblyNanos) / 1e9 / (assembled - this.lastAssembledCount);
+            this.assemblySeconds += SMOOTHING_FACTOR * (meanSeconds - this.assemblySeconds);
+        }
+
+        this.lastEstimateNanos = now;
+        this.lastRequestsCount = requests;
+        this.lastAssembledCount = assembled;
+        this.lastAssemblyNanos = assemblyNanos;
+    }
+
+    private boolean isProductionNeeded() {
+        int promised = this.factory.getStorageArea().carsStorage.getElementsCount() + this.assemblingCarsCount.get();
+        return promised < this.getTargetCarsCount();
+    }
+
+    private boolean tryDispatch(Executor executor) {
+        var storageArea = this.factory.getStorageArea();
 
-            while (this.factory.getStorageArea().carsStorage.isEmpty()) {
-                logger.log(Level.FINE, "{0} waits for a new car to be assembled", this);
-                this.factory.getStorageArea().carsStorage.wait();
+        if (this.factory.getProperties().partsReservation == PartsReservation.KIT) {
+            if (!storageArea.isKitAvailable()) {
+                return false;
             }
 
-            var newCar = this.factory.getStorageArea().carsStorage.get();
-            logger.log(Level.FINE, "{0} returns {1}", new Object[] { this, newCar });
-            this.factory.getStorageArea().carsStorage.notify();
+            var task = new CarAssemblyTask(this);
+            if (task.kit == null) {
+                return false;
+            }
 
-            this.carsDispatched += 1;
-            if (this.view != null) {
-                this.view.update();
+            this.execute(task, executor);
+        } else {
+            if (storageArea.getMaximumPossibleCarsCount() <= this.assemblingCarsCount.get()) {
+                return false;
             }
 
-            return newCar;
+            this.execute(new CarAssemblyTask(this, null), executor);
         }
+
+        return true;
     }
 
-    public int getDispatchedCarsCount() {
-        return this.carsDispatched;
+    private void execute(CarAssemblyTask task, Executor executor) {
+        int assembling = this.assemblingCarsCount.incrementAndGet();
+        Tracer.record(TraceEvent.ASSEMBLY_DISPATCHED, this.getId(), task.getId(), assembling);
+        try {
+            executor.execute(task);
+        } catch (IllegalStateException e) {
+            this.assemblingCarsCount.decrementAndGet();
+            if (task.kit != null) {
+                this.cutOffKits.add(task.kit);
+            }
+            throw e;
+        }
+    }
+
+    private void onPartAdded() {
+        if (this.isWaitingForParts) {
+            this.wakeProduction();
+        }
+    }
+
+    private void wakeProduction() {
+        var thread = this.productionThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
     }
 
     private static final class CarAssemblyTask extends UniqueObject implements Runnable {
         private static final Logger logger = Logger.getLogger(CarAssemblyTask.class.getSimpleName());
 
+        private final CarStorageController controller;
         private final Factory.StorageArea storageArea;
+        private final Factory.Kit kit;
+        private final long createdAtNanos;
+
+        CarAssemblyTask(
+                CarStorageController controller,
+                Factory.Kit kit) {
+            this.controller = controller;
+            this.storageArea = controller.factory.getStorageArea();
+            this.kit = kit;
+            this.createdAtNanos = controller.clock.getAsLong();
+        }
 
-        CarAssemblyTask(Factory.StorageArea storageArea) {
-            this.storageArea = storageArea;
+        // Reserves a kit in the task's name, so the event log ties its parts to the task; the kit is null when the
+        // parts ran out first
+        CarAssemblyTask(CarStorageController controller) {
+            this.controller = controller;
+            this.storageArea = controller.factory.getStorageArea();
+            this.kit = this.storageArea.tryReserveKit(this.getId());
+            this.createdAtNanos = controller.clock.getAsLong();
         }
 
         Body getBody()
                 throws InterruptedException {
-            synchronized (this.storageArea.bodiesStorage) {
-                while (this.storageArea.bodiesStorage.isEmpty()) {
-                    this.storageArea.bodiesStorage.wait();
-                }
-
-                var body = this.storageArea.bodiesStorage.get();
-                logger.log(
-                        Level.FINE, "{0} has taken {1} from {2}",
-                        new Object[] {
-                                this,
-                                body,
-                                this.storageArea.bodiesStorage
-                        }
-                );
-                this.storageArea.bodiesStorage.notify();
-                return body;
-            }
+            var body = this.storageArea.bodiesStorage.take(
+                    this.recorder(EventType.PART_TAKEN, this.storageArea.bodiesStorage)
+            );
+            Tracer.record(TraceEvent.BODY_TAKEN, this.getId(), body.getId(), this.storageArea.bodiesStorage.getId());
+            return body;
         }
 
         Motor getMotor()
                 throws InterruptedException {
-            synchronized (this.storageArea.motorsStorage) {
-                while (this.storageArea.motorsStorage.isEmpty()) {
-                    this.storageArea.motorsStorage.wait();
-                }
-
-                var motor = this.storageArea.motorsStorage.get();
-                logger.log(
-                        Level.FINE, "{0} has taken {1} from {2}",
-                        new Object[] {
-                                this,
-                                motor,
-                                this.storageArea.motorsStorage
-                        }
-                );
-                this.storageArea.motorsStorage.notify();
-                return motor;
-            }
+            var motor = this.storageArea.motorsStorage.take(
+                    this.recorder(EventType.PART_TAKEN, this.storageArea.motorsStorage)
+            );
+            Tracer.record(TraceEvent.MOTOR_TAKEN, this.getId(), motor.getId(), this.storageArea.motorsStorage.getId());
+            return motor;
         }
 
         Accessory getAccessory()
                 throws InterruptedException {
-            synchronized (this.storageArea.accessoriesStorage) {
-                while (this.storageArea.accessoriesStorage.isEmpty()) {
-                    this.storageArea.accessoriesStorage.wait();
-                }
+            var accessory = this.storageArea.accessoriesStorage.take(
+                    this.recorder(EventType.PART_TAKEN, this.storageArea.accessoriesStorage)
+            );
+            Tracer.record(
+                    TraceEvent.ACCESSORY_TAKEN,
+                    this.getId(),
+                    accessory.getId(),
+                    this.storageArea.accessoriesStorage.getId()
+            );
+            return accessory;
+        }
 
-                var accessory = this.storageArea.accessoriesStorage.get();
-                logger.log(
-                        Level.FINE, "{0} has taken {1} from {2}",
-                        new Object[] {
-                                this,
-                                accessory,
-                                this.storageArea.accessoriesStorage
-                        }
+        // Parts taken before an interruption go back, so that a snapshot after the shutdown still holds them;
+        // suppliers are stopped before workers, so the room they were taken from is still there
+        private Car takeParts()
+                throws InterruptedException {
+            final Body body = this.getBody();
+            try {
+                final Motor motor = this.getMotor();
+                try {
+                    return new Car(body, motor, this.getAccessory());
+                } catch (InterruptedException e) {
+                    this.storageArea.motorsStorage.offer(
+                            motor, this.recorder(EventType.PART_DELIVERED, this.storageArea.motorsStorage)
+                    );
+                    throw e;
+                }
+            } catch (InterruptedException e) {
+                this.storageArea.bodiesStorage.offer(
+                        body, this.recorder(EventType.PART_DELIVERED, this.storageArea.bodiesStorage)
                 );
-                this.storageArea.accessoriesStorage.notify();
-                return accessory;
+                throw e;
             }
         }
 
+        private Consumer<UniqueObject> recorder(EventType type, Storage<?> storage) {
+            return EventLog.recorder(type, this.getId(), storage.getId());
+        }
+
         void dispatchCar(Car newCar)
                 throws InterruptedException {
-            synchronized (this.storageArea.carsStorage) {
-                while (this.storageArea.carsStorage.isFull()) {
-                    this.storageArea.carsStorage.wait();
-                }
-
-                this.storageArea.carsStorage.add(newCar);
-                logger.log(
-                        Level.FINE, "{0} dispatched {1} to {2}",
-                        new Object[] {
-                                this,
-                                newCar,
-                                this.storageArea.carsStorage
-                        }
-                );
-                this.storageArea.carsStorage.notify();
-            }
+            this.storageArea.carsStorage.put(
+                    newCar, this.recorder(EventType.CAR_ASSEMBLED, this.storageArea.carsStorage)
+            );
+            Tracer.record(
+                    TraceEvent.CAR_DISPATCHED,
+                    this.getId(),
+                    newCar.getId(),
+                    this.storageArea.carsStorage.getId()
+            );
         }
 
         @Override
         public void run() {
-            final Body body;
+            var assembled = new CarAssembledEvent();
+            assembled.begin();
+            long startedAt = this.controller.clock.getAsLong();
+
+            final Car newCar;
             try {
-                body = this.getBody();
-                final Motor motor = this.getMotor();
-                final Accessory accessory = this.getAccessory();
+                newCar = this.kit != null
+                        ? new Car(this.kit.body, this.kit.motor, this.kit.accessory)
+                        : this.takeParts();
+            } catch (InterruptedException e) {
+                logger.log(Level.WARNING,"{0} was interrupted", this);
+                this.controller.assemblingCarsCount.decrementAndGet();
+                return;
+            }
+
+            PartConsumedEvent.commit(this.getId(), this.storageArea.bodiesStorage.getId(), newCar.getBody());
+            PartConsumedEvent.commit(this.getId(), this.storageArea.motorsStorage.getId(), newCar.getMotor());
+            PartConsumedEvent.commit(this.getId(), this.storageArea.accessoriesStorage.getId(), newCar.getAccessory());
 
-                this.dispatchCar(new Car(body, motor, accessory));
+            // The car counts as assembling until it is in the storage; a gap between the two would let the controller
+            // order one car too many
+            try {
+                this.dispatchCar(newCar);
             } catch (InterruptedException e) {
                 logger.log(Level.WARNING,"{0} was interrupted", this);
+                this.controller.cutOffCars.add(newCar);
+                return;
+            } finally {
+                this.controller.assemblingCarsCount.decrementAndGet();
+            }
+
+            long dispatchedAt = this.controller.clock.getAsLong();
+            assembled.end();
+            if (assembled.shouldCommit()) {
+                assembled.taskId = this.getId();
+                assembled.carId = newCar.getId();
+                assembled.storageId = this.storageArea.carsStorage.getId();
+                assembled.commit();
             }
+
+            this.controller.assemblyTimeNanos.record(dispatchedAt - startedAt);
+            this.controller.assemblyNanos.addAndGet(dispatchedAt - this.createdAtNanos);
+            this.controller.assembledCarsCount.incrementAndGet();
+            this.controller.wakeProduction();
         }
     }
 
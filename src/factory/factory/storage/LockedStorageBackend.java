@@ -0,0 +1,209 @@
+package factory.factory.storage;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Blocking and capacity logic shared by the backends that keep their elements under one lock with a condition for
+ * each side. Subclasses only store and retrieve elements: add and remove are called under the lock, add only below
+ * the capacity and remove only on a non-empty backend.
+ */
+abstract class LockedStorageBackend<T> implements StorageBackend<T> {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = this.lock.newCondition();
+    private final Condition notEmpty = this.lock.newCondition();
+
+    // Written under the lock, read without it so monitoring never contends with producers and consumers
+    private volatile int capacity;
+    private volatile int count = 0;
+    private volatile int waitingProducers = 0;
+    private volatile int waitingConsumers = 0;
+
+    LockedStorageBackend(int capacity) {
+        this.capacity = capacity;
+    }
+
+    abstract void add(T element);
+
+    abstract T remove();
+
+    @Override
+    public boolean offer(T element, Consumer<? super T> observer) {
+        this.lock.lock();
+        try {
+            if (this.count >= this.capacity) {
+                return false;
+            }
+
+            this.addCounted(element, observer);
+            this.notEmpty.signal();
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll(Consumer<? super T> observer) {
+        this.lock.lock();
+        try {
+            if (this.count == 0) {
+                return null;
+            }
+
+            var element = this.removeCounted(observer);
+            this.notFull.signal();
+            return element;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(T element, Consumer<? super T> observer)
+            throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            while (this.count >= this.capacity) {
+                this.awaitNotFull();
+            }
+
+            this.addCounted(element, observer);
+            this.notEmpty.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public T take(Consumer<? super T> observer)
+            throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            while (this.count == 0) {
+                this.awaitNotEmpty();
+            }
+
+            var element = this.removeCounted(observer);
+            this.notFull.signal();
+            return element;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Collection<? extends T> elements, Consumer<? super T> observer)
+            throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            var iterator = elements.iterator();
+
+            while (iterator.hasNext()) {
+                while (this.count >= this.capacity) {
+                    this.notEmpty.signalAll();
+                    this.awaitNotFull();
+                }
+
+                this.addCounted(iterator.next(), observer);
+            }
+
+            this.notEmpty.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> destination, int maxElements) {
+        this.lock.lock();
+        try {
+            int drained = 0;
+
+            while (drained < maxElements && this.count > 0) {
+                destination.add(this.removeCounted(null));
+                drained += 1;
+            }
+
+            if (drained > 0) {
+                this.notFull.signalAll();
+            }
+
+            return drained;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.count;
+    }
+
+    @Override
+    public int capacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public void setCapacity(int capacity) {
+        this.lock.lock();
+        try {
+            this.capacity = capacity;
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int waitingProducers() {
+        return this.waitingProducers;
+    }
+
+    @Override
+    public int waitingConsumers() {
+        return this.waitingConsumers;
+    }
+
+    // The count, read without the lock, shows an addition only once it is observed and a removal before it is, so
+    // nobody acting on the count gets ahead of the observers
+    private void addCounted(T element, Consumer<? super T> observer) {
+        this.add(element);
+        if (observer != null) {
+            observer.accept(element);
+        }
+        this.count += 1;
+    }
+
+    private T removeCounted(Consumer<? super T> observer) {
+        var element = this.remove();
+        this.count -= 1;
+        if (observer != null) {
+            observer.accept(element);
+        }
+        return element;
+    }
+
+    private void awaitNotFull()
+            throws InterruptedException {
+        this.waitingProducers += 1;
+        try {
+            this.notFull.await();
+        } finally {
+            this.waitingProducers -= 1;
+        }
+    }
+
+    private void awaitNotEmpty()
+            throws InterruptedException {
+        this.waitingConsumers += 1;
+        try {
+            this.notEmpty.await();
+        } finally {
+            this.waitingConsumers -= 1;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package factory.factory.storage;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+final class MonitorStorageBackend<T> extends LockedStorageBackend<T> {
+    // Guarded by the lock
+    private final Queue<T> elements;
+
+    MonitorStorageBackend(int capacity) {
+        super(capacity);
+        this.elements = new ArrayDeque<>(capacity);
+    }
+
+    @Override
+    void add(T element) {
+        this.elements.add(element);
+    }
+
+    @Override
+    T remove() {
+        return this.elements.poll();
+    }
+}
@@ -0,0 +1,65 @@
+package factory.factory.storage;
+
+import factory.factory.car.Car;
+import factory.factory.car.parts.Accessory;
+import factory.factory.car.parts.Body;
+import factory.factory.car.parts.Motor;
+import factory.util.UniqueObject;
+
+import java.util.function.IntFunction;
+
+// Flattens the elements of a packed storage into a fixed number of ints and rebuilds them on the way out
+public interface PackedCodec<T> {
+
+    int intsPerElement();
+
+    void encode(T element, int[] ints, int offset);
+
+    T decode(int[] ints, int offset);
+
+    // Parts hold nothing but their id, so a part comes back equal to the one that went in
+    static <T extends UniqueObject> PackedCodec<T> ofIds(IntFunction<T> partFactory) {
+        return new PackedCodec<>() {
+            @Override
+            public int intsPerElement() {
+                return 1;
+            }
+
+            @Override
+            public void encode(T element, int[] ints, int offset) {
+                ints[offset] = element.getId();
+            }
+
+            @Override
+            public T decode(int[] ints, int offset) {
+                return partFactory.apply(ints[offset]);
+            }
+        };
+    }
+
+    // A car is its own id followed by the ids of its body, motor and accessory
+    PackedCodec<Car> CARS = new PackedCodec<>() {
+        @Override
+        public int intsPerElement() {
+            return 4;
+        }
+
+        @Override
+        public void encode(Car element, int[] ints, int offset) {
+            ints[offset] = element.getId();
+            ints[offset + 1] = element.getBody().getId();
+            ints[offset + 2] = element.getMotor().getId();
+            ints[offset + 3] = element.getAccessory().getId();
+        }
+
+        @Override
+        public Car decode(int[] ints, int offset) {
+            return new Car(
+                    ints[offset],
+                    new Body(ints[offset + 1]),
+                    new Motor(ints[offset + 2]),
+                    new Accessory(ints[offset + 3])
+            );
+        }
+    };
+}
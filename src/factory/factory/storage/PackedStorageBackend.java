@@ -0,0 +1,73 @@
+package factory.factory.storage;
+
+/*
+ * Keeps elements encoded in one int[] ring instead of as objects, so a storage of millions costs a few ints per
+ * element and nothing for the collector to trace. Elements are rebuilt by the codec when they are taken out.
+ * The ring starts small and doubles up to the capacity, so a large capacity is only paid for once it fills up.
+ */
+final class PackedStorageBackend<T> extends LockedStorageBackend<T> {
+    private static final int INITIAL_SLOTS_COUNT = 16;
+
+    private final PackedCodec<T> codec;
+    private final int width;
+
+    // Guarded by the lock; head is the slot of the oldest element
+    private int[] ints;
+    private int slotsCount;
+    private int head = 0;
+
+    PackedStorageBackend(int capacity, PackedCodec<T> codec) {
+        super(capacity);
+        this.codec = codec;
+        this.width = codec.intsPerElement();
+        this.slotsCount = Math.min(capacity, INITIAL_SLOTS_COUNT);
+        this.ints = new int[this.slotsCount * this.width];
+    }
+
+    @Override
+    void add(T element) {
+        int count = this.size();
+        if (count == this.slotsCount) {
+            this.grow(count);
+        }
+
+        int slot = this.head + count;
+        if (slot >= this.slotsCount) {
+            slot -= this.slotsCount;
+        }
+
+        this.codec.encode(element, this.ints, slot * this.width);
+    }
+
+    @Override
+    T remove() {
+        var element = this.codec.decode(this.ints, this.head * this.width);
+
+        this.head += 1;
+        if (this.head == this.slotsCount) {
+            this.head = 0;
+        }
+
+        return element;
+    }
+
+    // Only called on a full ring below the capacity; doubles it up to the capacity and unwraps it on the way
+    private void grow(int count) {
+        int newSlotsCount = (int) Math.min(
+                Math.min(2L * this.slotsCount, this.capacity()),
+                Integer.MAX_VALUE / this.width
+        );
+        if (newSlotsCount <= this.slotsCount) {
+            throw new IllegalStateException("Packed storage cannot hold more elements");
+        }
+
+        var newInts = new int[newSlotsCount * this.width];
+        int firstPart = Math.min(count, this.slotsCount - this.head);
+        System.arraycopy(this.ints, this.head * this.width, newInts, 0, firstPart * this.width);
+        System.arraycopy(this.ints, 0, newInts, firstPart * this.width, (count - firstPart) * this.width);
+
+        this.ints = newInts;
+        this.slotsCount = newSlotsCount;
+        this.head = 0;
+    }
+}
@@ -0,0 +1,28 @@
+package factory.factory.storage;
+
+public enum PartsReservation {
+    SEQUENTIAL("Sequential"),
+    KIT("Kit");
+
+    private final String configName;
+
+    PartsReservation(String configName) {
+        this.configName = configName;
+    }
+
+    public static PartsReservation fromConfigName(String configName)
+            throws IllegalArgumentException {
+        for (var reservation : PartsReservation.values()) {
+            if (reservation.configName.equals(configName)) {
+                return reservation;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unknown parts reservation \"%s\"", configName));
+    }
+
+    @Override
+    public String toString() {
+        return this.configName;
+    }
+}
@@ -0,0 +1,232 @@
+package factory.factory.storage;
+
+import factory.util.WaitQueue;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+final class RingBufferStorageBackend<T> implements StorageBackend<T> {
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final int slotsCount;
+
+    // Slots are allocated once, so the capacity can only move within them
+    private volatile int capacity;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final WaitQueue consumers = new WaitQueue();
+    private final WaitQueue producers = new WaitQueue();
+
+    // Observed calls claim their slot and call the observer under this lock, or two producers could claim slots in
+    // one order and tell their observers in the other; unobserved calls stay lock-free
+    private final ReentrantLock observedLock = new ReentrantLock();
+
+    // 1 while an observed addition has claimed its slot but not yet told its observer; written under observedLock
+    private volatile int unobservedAdditions = 0;
+
+    RingBufferStorageBackend(int capacity) {
+        this.slotsCount = capacity;
+        this.capacity = capacity;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+
+        for (int i = 0; i < capacity; ++i) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public boolean offer(T element, Consumer<? super T> observer) {
+        if (!this.tryEnqueue(element, observer)) {
+            return false;
+        }
+
+        this.consumers.signal();
+        return true;
+    }
+
+    @Override
+    public T poll(Consumer<? super T> observer) {
+        var element = this.tryDequeue(observer);
+        if (element != null) {
+            this.producers.signal();
+        }
+
+        return element;
+    }
+
+    @Override
+    public void put(T element, Consumer<? super T> observer)
+            throws InterruptedException {
+        if (!this.offer(element, observer)) {
+            this.producers.await(() -> this.offer(element, observer) ? Boolean.TRUE : null);
+        }
+    }
+
+    @Override
+    public T take(Consumer<? super T> observer)
+            throws InterruptedException {
+        var element = this.poll(observer);
+        if (element != null) {
+            return element;
+        }
+
+        return this.consumers.await(() -> this.poll(observer));
+    }
+
+    @Override
+    public void putAll(Collection<? extends T> elements, Consumer<? super T> observer)
+            throws InterruptedException {
+        for (var element : elements) {
+            this.put(element, observer);
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> destination, int maxElements) {
+        int drained = 0;
+
+        while (drained < maxElements) {
+            var element = this.poll();
+            if (element == null) {
+                break;
+            }
+
+            destination.add(element);
+            drained += 1;
+        }
+
+        return drained;
+    }
+
+    // The tail is read first: a head read first may move on before the tail is read, counting an element that was
+    // already taken, and the controller would then send a worker after a part that is not there. For the same reason
+    // an observed addition is left out until its observer is told, and an observed removal is not
+    @Override
+    public int size() {
+        long tail = this.tail.get() - this.unobservedAdditions;
+        long size = tail - this.head.get();
+        return (int) Math.max(0, Math.min(size, this.slotsCount));
+    }
+
+    @Override
+    public int capacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public void setCapacity(int capacity)
+            throws IllegalArgumentException {
+        if (capacity > this.slotsCount) {
+            throw new IllegalArgumentException(
+                    String.format("Ring buffer cannot grow past its %d slots", this.slotsCount)
+            );
+        }
+
+        this.capacity = capacity;
+        this.producers.signalAll();
+    }
+
+    @Override
+    public int waitingProducers() {
+        return this.producers.getWaitersCount();
+    }
+
+    @Override
+    public int waitingConsumers() {
+        return this.consumers.getWaitersCount();
+    }
+
+    private boolean tryEnqueue(T element, Consumer<? super T> observer) {
+        if (observer == null) {
+            return this.tryEnqueue(element);
+        }
+
+        this.observedLock.lock();
+        try {
+            this.unobservedAdditions = 1;
+            if (!this.tryEnqueue(element)) {
+                return false;
+            }
+
+            observer.accept(element);
+            return true;
+        } finally {
+            this.unobservedAdditions = 0;
+            this.observedLock.unlock();
+        }
+    }
+
+    private T tryDequeue(Consumer<? super T> observer) {
+        if (observer == null) {
+            return this.tryDequeue();
+        }
+
+        this.observedLock.lock();
+        try {
+            var element = this.tryDequeue();
+            if (element != null) {
+                observer.accept(element);
+            }
+
+            return element;
+        } finally {
+            this.observedLock.unlock();
+        }
+    }
+
+    private boolean tryEnqueue(T element) {
+        long position = this.tail.get();
+
+        while (true) {
+            if (position - this.head.get() >= this.capacity) {
+                return false;
+            }
+
+            int index = (int) (position % this.slotsCount);
+            long difference = this.sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.elements.lazySet(index, element);
+                    this.sequences.set(index, position + 1);
+                    return true;
+                }
+                position = this.tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = this.tail.get();
+            }
+        }
+    }
+
+    private T tryDequeue() {
+        long position = this.head.get();
+
+        while (true) {
+            int index = (int) (position % this.slotsCount);
+            long difference = this.sequences.get(index) - (position + 1);
+
+            if (difference == 0) {
+                if (this.head.compareAndSet(position, position + 1)) {
+                    var element = this.elements.get(index);
+                    this.elements.lazySet(index, null);
+                    this.sequences.set(index, position + this.slotsCount);
+                    return element;
+                }
+                position = this.head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = this.head.get();
+            }
+        }
+    }
+}
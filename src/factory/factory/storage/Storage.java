@@ -3,58 +3,234 @@ package factory.factory.storage;
 import factory.ui.util.Alterable;
 import factory.ui.util.View;
 import factory.util.UniqueObject;
+import factory.util.jfr.StorageStallEvent;
+import factory.util.metrics.Histogram;
+import factory.util.metrics.RateMeter;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class Storage<T extends UniqueObject> extends UniqueObject implements Alterable {
-    private final Queue<T> storage;
-    private final int capacity;
+    private final StorageBackend<T> backend;
+    private final CopyOnWriteArrayList<Runnable> additionListeners = new CopyOnWriteArrayList<>();
+    private final Histogram putWaitNanos = new Histogram();
+    private final Histogram takeWaitNanos = new Histogram();
+    private final RateMeter additionRate = new RateMeter();
+    private final RateMeter removalRate = new RateMeter();
     private View<? extends Alterable> view;
 
     public Storage(int capacity) throws IllegalArgumentException {
+        this(capacity, StorageBackend.Type.MONITOR);
+    }
+
+    public Storage(
+            int capacity,
+            StorageBackend.Type backendType)
+            throws IllegalArgumentException {
+        this(capacity, backendType, null);
+    }
+
+    public Storage(
+            int capacity,
+            StorageBackend.Type backendType,
+            PackedCodec<T> codec)
+            throws IllegalArgumentException {
         if (capacity < 1) {
             throw new IllegalArgumentException("Capacity must be greater than 0");
         }
 
-        this.capacity = capacity;
-        this.storage = new ArrayDeque<>(this.capacity);
+        this.backend = backendType.create(capacity, codec);
     }
 
     public boolean isEmpty() {
-        return this.storage.isEmpty();
+        return this.backend.size() == 0;
     }
 
     public boolean isFull() {
-        return this.storage.size() >= this.capacity;
+        return this.backend.size() >= this.backend.capacity();
     }
 
     public int getElementsCount() {
-        return this.storage.size();
+        return this.backend.size();
     }
 
     public int getCapacity() {
-        return this.capacity;
+        return this.backend.capacity();
     }
 
-    public void add(T part) {
-        this.storage.add(part);
+    public void setCapacity(int capacity)
+            throws IllegalArgumentException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
 
-        if (this.view != null) {
-            this.view.update();
+        this.backend.setCapacity(capacity);
+        this.updateView();
+    }
+
+    // Non-blocking calls that succeed count as waits of zero, so the histograms cover every addition and removal
+    public Histogram getPutWaitNanos() {
+        return this.putWaitNanos;
+    }
+
+    public Histogram getTakeWaitNanos() {
+        return this.takeWaitNanos;
+    }
+
+    public RateMeter getAdditionRate() {
+        return this.additionRate;
+    }
+
+    public RateMeter getRemovalRate() {
+        return this.removalRate;
+    }
+
+    public int getWaitingProducersCount() {
+        return this.backend.waitingProducers();
+    }
+
+    public int getWaitingConsumersCount() {
+        return this.backend.waitingConsumers();
+    }
+
+    public void put(T part)
+            throws InterruptedException {
+        this.put(part, null);
+    }
+
+    // Observers are called with each part inside the operation, in the order the backend saw its parts
+    public void put(T part, Consumer<? super T> observer)
+            throws InterruptedException {
+        var stall = beginStall();
+        long startedAt = System.nanoTime();
+        this.backend.put(part, observer);
+        this.putWaitNanos.record(System.nanoTime() - startedAt);
+        this.commitStall(stall, true);
+
+        this.additionRate.mark();
+        this.updateView();
+        this.notifyAdditionListeners();
+    }
+
+    public T take()
+            throws InterruptedException {
+        return this.take(null);
+    }
+
+    public T take(Consumer<? super T> observer)
+            throws InterruptedException {
+        var stall = beginStall();
+        long startedAt = System.nanoTime();
+        var retrieved = this.backend.take(observer);
+        this.takeWaitNanos.record(System.nanoTime() - startedAt);
+        this.commitStall(stall, false);
+
+        this.removalRate.mark();
+        this.updateView();
+        return retrieved;
+    }
+
+    public boolean offer(T part) {
+        return this.offer(part, null);
+    }
+
+    public boolean offer(T part, Consumer<? super T> observer) {
+        if (!this.backend.offer(part, observer)) {
+            return false;
         }
+
+        this.putWaitNanos.record(0);
+        this.additionRate.mark();
+        this.updateView();
+        this.notifyAdditionListeners();
+        return true;
     }
 
-    public T get() {
-        var retrieved = this.storage.poll();
+    public T poll() {
+        return this.poll(null);
+    }
 
-        if (this.view != null) {
-            this.view.update();
+    public T poll(Consumer<? super T> observer) {
+        var retrieved = this.backend.poll(observer);
+        if (retrieved != null) {
+            this.takeWaitNanos.record(0);
+            this.removalRate.mark();
+            this.updateView();
         }
 
         return retrieved;
     }
 
+    public void addAll(Collection<? extends T> parts)
+            throws InterruptedException {
+        this.addAll(parts, null);
+    }
+
+    public void addAll(Collection<? extends T> parts, Consumer<? super T> observer)
+            throws InterruptedException {
+        var stall = beginStall();
+        long startedAt = System.nanoTime();
+        this.backend.putAll(parts, observer);
+        this.putWaitNanos.record(System.nanoTime() - startedAt);
+        this.commitStall(stall, true);
+
+        this.additionRate.mark(parts.size());
+        this.updateView();
+        this.notifyAdditionListeners();
+    }
+
+    public int drainTo(Collection<? super T> destination, int maxElements) {
+        int drained = this.backend.drainTo(destination, maxElements);
+        if (drained > 0) {
+            this.takeWaitNanos.record(0);
+            this.removalRate.mark(drained);
+            this.updateView();
+        }
+
+        return drained;
+    }
+
+    public void addAdditionListener(Runnable listener) {
+        this.additionListeners.add(listener);
+    }
+
+    // Null while no recording has stall events enabled
+    private static StorageStallEvent beginStall() {
+        if (!StorageStallEvent.isTypeEnabled()) {
+            return null;
+        }
+
+        var stall = new StorageStallEvent();
+        stall.begin();
+        return stall;
+    }
+
+    private void commitStall(StorageStallEvent stall, boolean isFull) {
+        if (stall == null) {
+            return;
+        }
+
+        stall.end();
+        if (stall.shouldCommit()) {
+            stall.storageId = this.getId();
+            stall.isFull = isFull;
+            stall.commit();
+        }
+    }
+
+    private void notifyAdditionListeners() {
+        for (var listener : this.additionListeners) {
+            listener.run();
+        }
+    }
+
+    private void updateView() {
+        if (this.view != null) {
+            this.view.update();
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("%s (%d/%d)", super.toString(), this.getElementsCount(), this.getCapacity());
@@ -0,0 +1,85 @@
+package factory.factory.storage;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public interface StorageBackend<T> {
+
+    // Observers are called with each element an operation adds or removes, inside the operation, so the calls of
+    // all observers on one backend come in the order it saw its elements; a null observer is not called
+    boolean offer(T element, Consumer<? super T> observer);
+
+    T poll(Consumer<? super T> observer);
+
+    void put(T element, Consumer<? super T> observer) throws InterruptedException;
+
+    T take(Consumer<? super T> observer) throws InterruptedException;
+
+    void putAll(Collection<? extends T> elements, Consumer<? super T> observer) throws InterruptedException;
+
+    default boolean offer(T element) {
+        return this.offer(element, null);
+    }
+
+    default T poll() {
+        return this.poll(null);
+    }
+
+    int drainTo(Collection<? super T> destination, int maxElements);
+
+    int size();
+
+    int capacity();
+
+    // Shrinking never drops elements: producers block until consumers bring the size under the new capacity
+    void setCapacity(int capacity) throws IllegalArgumentException;
+
+    int waitingProducers();
+
+    int waitingConsumers();
+
+    enum Type {
+        MONITOR("Monitor"),
+        RING_BUFFER("RingBuffer"),
+        PACKED("Packed");
+
+        private final String configName;
+
+        Type(String configName) {
+            this.configName = configName;
+        }
+
+        // The codec is only used by packed backends, which cannot do without one
+        public <T> StorageBackend<T> create(int capacity, PackedCodec<T> codec)
+                throws IllegalArgumentException {
+            switch (this) {
+                case RING_BUFFER:
+                    return new RingBufferStorageBackend<>(capacity);
+                case PACKED:
+                    if (codec == null) {
+                        throw new IllegalArgumentException("Packed storage needs a codec");
+                    }
+                    return new PackedStorageBackend<>(capacity, codec);
+                case MONITOR:
+                default:
+                    return new MonitorStorageBackend<>(capacity);
+            }
+        }
+
+        public static Type fromConfigName(String configName)
+                throws IllegalArgumentException {
+            for (var type : Type.values()) {
+                if (type.configName.equals(configName)) {
+                    return type;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("Unknown storage backend \"%s\"", configName));
+        }
+
+        @Override
+        public String toString() {
+            return this.configName;
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package factory.factory.supplier;
 
+import factory.factory.events.EventLog;
+import factory.factory.events.EventType;
 import factory.factory.storage.Storage;
 import factory.util.Periodic;
 import factory.util.UniqueObject;
+import factory.util.jfr.PartDeliveredEvent;
+import factory.util.trace.TraceEvent;
+import factory.util.trace.Tracer;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.logging.Level;
@@ -15,19 +22,36 @@ public class PartsSupplier<T extends UniqueObject> extends UniqueObject implemen
     private final Supplier<T> supplier;
     private final Storage<T> storage;
     private final AtomicInteger delayMillis;
+    private final AtomicInteger batchSize;
+
+    // Parts of the current batch that tryRunOnce has not delivered yet
+    private final ArrayDeque<T> undelivered = new ArrayDeque<>();
 
     public PartsSupplier(
             Supplier<T> supplier,
             Storage<T> storage,
             int delayMillis)
             throws IllegalArgumentException {
-        if (delayMillis < 1) {
-            throw new IllegalArgumentException("Delay must be positive");
+        this(supplier, storage, delayMillis, 1);
+    }
+
+    public PartsSupplier(
+            Supplier<T> supplier,
+            Storage<T> storage,
+            int delayMillis,
+            int batchSize)
+            throws IllegalArgumentException {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("Delay must not be negative");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
         }
 
         this.supplier = supplier;
         this.storage = storage;
         this.delayMillis = new AtomicInteger(delayMillis);
+        this.batchSize = new AtomicInteger(batchSize);
     }
 
     @Override
@@ -40,34 +64,79 @@ public class PartsSupplier<T extends UniqueObject> extends UniqueObject implemen
         this.delayMillis.set(newDelayMillis);
     }
 
+    public int getBatchSize() {
+        return this.batchSize.get();
+    }
+
+    public void setBatchSize(int newBatchSize)
+            throws IllegalArgumentException {
+        if (newBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        this.batchSize.set(newBatchSize);
+    }
+
+    @Override
+    public boolean tryRunOnce() {
+        if (this.undelivered.isEmpty()) {
+            int batchSize = this.batchSize.get();
+            for (int i = 0; i < batchSize; ++i) {
+                this.undelivered.add(this.supplier.get());
+            }
+        }
+
+        var recorder = EventLog.recorder(EventType.PART_DELIVERED, this.getId(), this.storage.getId());
+        while (!this.undelivered.isEmpty()) {
+            var part = this.undelivered.peek();
+            if (!this.storage.offer(part, recorder)) {
+                Tracer.record(TraceEvent.SUPPLIER_WAITING, this.getId(), this.storage.getId());
+                return false;
+            }
+
+            this.undelivered.poll();
+            Tracer.record(TraceEvent.PARTS_DELIVERED, this.getId(), 1, this.storage.getId());
+            PartDeliveredEvent.commit(this.getId(), this.storage.getId(), part);
+        }
+
+        return true;
+    }
+
+    @Override
+    public void abandon() {
+        this.undelivered.clear();
+    }
+
     @Override
     public void run() {
-        outer:
-        while (true) {
-            var newPart = this.supplier.get();
-
-            synchronized (this.storage) {
-                while (this.storage.isFull()) {
-                    try {
-                        logger.log(
-                                Level.FINE, "{0} is waiting for {1} to become available",
-                                new Object[]{ this, this.storage}
-                                );
-                        this.storage.wait();
-                    } catch (InterruptedException e) {
-                        logger.log(
-                                Level.WARNING,"{0} is interrupted when waiting for {1} to become available",
-                                new Object[] { this, this.storage }
-                        );
-                        break outer;
-                    }
-                }
+        var batch = new ArrayList<T>(this.batchSize.get());
 
-                this.storage.add(newPart);
-                logger.log(Level.FINE, "{0} added {1} to {2}", new Object[] { this, newPart, this.storage });
-                this.storage.notify();
+        while (true) {
+            int batchSize = this.batchSize.get();
+            for (int i = 0; i < batchSize; ++i) {
+                batch.add(this.supplier.get());
             }
 
+            var recorder = EventLog.recorder(EventType.PART_DELIVERED, this.getId(), this.storage.getId());
+            try {
+                if (batchSize > 1) {
+                    this.storage.addAll(batch, recorder);
+                } else if (!this.storage.offer(batch.get(0), recorder)) {
+                    Tracer.record(TraceEvent.SUPPLIER_WAITING, this.getId(), this.storage.getId());
+                    this.storage.put(batch.get(0), recorder);
+                }
+            } catch (InterruptedException e) {
+                logger.log(
+                        Level.WARNING, "{0} is interrupted when waiting for {1} to become available",
+                        new Object[] { this, this.storage }
+                );
+                break;
+            }
+            Tracer.record(TraceEvent.PARTS_DELIVERED, this.getId(), batchSize, this.storage.getId());
+            for (var part : batch) {
+                PartDeliveredEvent.commit(this.getId(), this.storage.getId(), part);
+            }
+            batch.clear();
 
             try {
                 Thread.sleep(this.delayMillis.get());
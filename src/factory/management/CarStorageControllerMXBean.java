@@ -0,0 +1,22 @@
+package factory.management;
+
+public interface CarStorageControllerMXBean {
+
+    int getDispatchedCarsCount();
+
+    int getPendingRequestsCount();
+
+    int getAssemblingCarsCount();
+
+    int getTargetCarsCount();
+
+    double getCarsPerSecond();
+
+    double getMeanRequestMillis();
+
+    double getP99RequestMillis();
+
+    double getMaxRequestMillis();
+
+    double getMeanAssemblyMillis();
+}
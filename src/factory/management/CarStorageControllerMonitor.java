@@ -0,0 +1,56 @@
+package factory.management;
+
+import factory.factory.storage.CarStorageController;
+
+final class CarStorageControllerMonitor implements CarStorageControllerMXBean {
+    private final CarStorageController controller;
+
+    CarStorageControllerMonitor(CarStorageController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public int getDispatchedCarsCount() {
+        return this.controller.getDispatchedCarsCount();
+    }
+
+    @Override
+    public int getPendingRequestsCount() {
+        return this.controller.getPendingRequestsCount();
+    }
+
+    @Override
+    public int getAssemblingCarsCount() {
+        return this.controller.getAssemblingCarsCount();
+    }
+
+    @Override
+    public int getTargetCarsCount() {
+        return this.controller.getTargetCarsCount();
+    }
+
+    @Override
+    public double getCarsPerSecond() {
+        return this.controller.getDispatchRate().getRatePerSecond();
+    }
+
+    @Override
+    public double getMeanRequestMillis() {
+        return this.controller.getMeanRequestMillis();
+    }
+
+    @Override
+    public double getP99RequestMillis() {
+        return this.controller.getRequestLatencyNanos().getValueAtPercentile(99) / 1e6;
+    }
+
+    @Override
+    public double getMaxRequestMillis() {
+        return this.controller.getMaxRequestMillis();
+    }
+
+    @Override
+    public double getMeanAssemblyMillis() {
+        return this.controller.getAssemblyTimeNanos().getMean() / 1e6;
+    }
+}
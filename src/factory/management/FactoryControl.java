@@ -0,0 +1,36 @@
+package factory.management;
+
+import factory.factory.Factory;
+
+final class FactoryControl implements FactoryMXBean {
+    private final Factory factory;
+
+    FactoryControl(Factory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public int getAccessorySuppliersCount() {
+        return this.factory.getSuppliers().accessoriesSuppliers.size();
+    }
+
+    @Override
+    public void setAccessorySuppliersCount(int count) {
+        this.factory.setAccessorySuppliersCount(count);
+    }
+
+    @Override
+    public int getDealersCount() {
+        return this.factory.getDealers().dealers.size();
+    }
+
+    @Override
+    public void setDealersCount(int count) {
+        this.factory.setDealersCount(count);
+    }
+
+    @Override
+    public long getDroppedSalesCount() {
+        return this.factory.getMetrics().getDroppedSalesCount();
+    }
+}
@@ -0,0 +1,14 @@
+package factory.management;
+
+public interface FactoryMXBean {
+
+    int getAccessorySuppliersCount();
+
+    void setAccessorySuppliersCount(int count);
+
+    int getDealersCount();
+
+    void setDealersCount(int count);
+
+    long getDroppedSalesCount();
+}
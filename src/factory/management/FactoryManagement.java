@@ -0,0 +1,85 @@
+package factory.management;
+
+import factory.factory.Factory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Publishes a factory on the platform MBean server under the "factory" domain
+public final class FactoryManagement {
+    private static final Logger logger = Logger.getLogger(FactoryManagement.class.getSimpleName());
+
+    private static final String DOMAIN = "factory";
+
+    private final MBeanServer server;
+    private final ArrayList<ObjectName> registeredNames = new ArrayList<>();
+
+    private FactoryManagement(MBeanServer server) {
+        this.server = server;
+    }
+
+    public static FactoryManagement register(Factory factory)
+            throws JMException {
+        var management = new FactoryManagement(ManagementFactory.getPlatformMBeanServer());
+
+        try {
+            var storageArea = factory.getStorageArea();
+            management.register("type=Storage,name=Bodies", new StorageMonitor("Bodies", storageArea.bodiesStorage));
+            management.register("type=Storage,name=Motors", new StorageMonitor("Motors", storageArea.motorsStorage));
+            management.register(
+                    "type=Storage,name=Accessories",
+                    new StorageMonitor("Accessories", storageArea.accessoriesStorage)
+            );
+            management.register("type=Storage,name=Cars", new StorageMonitor("Cars", storageArea.carsStorage));
+
+            management.register("type=CarStorageController", new CarStorageControllerMonitor(storageArea.controller));
+            management.register("type=ThreadPool,name=Workers", new ThreadPoolMonitor(factory.getWorkersPool()));
+
+            var suppliers = factory.getSuppliers();
+            management.register("type=PartsSupplier,name=Bodies", new PartsSupplierMonitor(suppliers.bodiesSupplier));
+            management.register("type=PartsSupplier,name=Motors", new PartsSupplierMonitor(suppliers.motorsSupplier));
+            for (var supplier : suppliers.accessoriesSuppliers) {
+                management.register(
+                        String.format("type=PartsSupplier,name=Accessories,id=%d", supplier.getId()),
+                        new PartsSupplierMonitor(supplier)
+                );
+            }
+
+            for (var dealer : factory.getDealers().dealers) {
+                management.register(String.format("type=Dealer,id=%d", dealer.getId()), new PeriodicMonitor(dealer));
+            }
+
+            management.register("type=Factory", new FactoryControl(factory));
+            management.register("type=Tracing", new TracingControl());
+        } catch (JMException e) {
+            management.unregister();
+            throw e;
+        }
+
+        return management;
+    }
+
+    public void unregister() {
+        for (var name : this.registeredNames) {
+            try {
+                this.server.unregisterMBean(name);
+            } catch (JMException e) {
+                logger.log(Level.WARNING, "Failed to unregister {0}: {1}", new Object[] { name, e.getMessage() });
+            }
+        }
+
+        this.registeredNames.clear();
+    }
+
+    private void register(String properties, Object bean)
+            throws JMException {
+        var name = new ObjectName(DOMAIN + ":" + properties);
+        this.server.registerMBean(bean, name);
+        this.registeredNames.add(name);
+    }
+}
@@ -0,0 +1,8 @@
+package factory.management;
+
+public interface PartsSupplierMXBean extends PeriodicMXBean {
+
+    int getBatchSize();
+
+    void setBatchSize(int batchSize);
+}
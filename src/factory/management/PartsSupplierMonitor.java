@@ -0,0 +1,22 @@
+package factory.management;
+
+import factory.factory.supplier.PartsSupplier;
+
+final class PartsSupplierMonitor extends PeriodicMonitor implements PartsSupplierMXBean {
+    private final PartsSupplier<?> supplier;
+
+    PartsSupplierMonitor(PartsSupplier<?> supplier) {
+        super(supplier);
+        this.supplier = supplier;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return this.supplier.getBatchSize();
+    }
+
+    @Override
+    public void setBatchSize(int batchSize) {
+        this.supplier.setBatchSize(batchSize);
+    }
+}
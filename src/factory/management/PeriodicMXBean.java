@@ -0,0 +1,10 @@
+package factory.management;
+
+public interface PeriodicMXBean {
+
+    String getName();
+
+    int getDelayMillis();
+
+    void setDelayMillis(int delayMillis);
+}
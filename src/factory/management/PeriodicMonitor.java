@@ -0,0 +1,30 @@
+package factory.management;
+
+import factory.util.Periodic;
+
+class PeriodicMonitor implements PeriodicMXBean {
+    private final Periodic periodic;
+
+    PeriodicMonitor(Periodic periodic) {
+        this.periodic = periodic;
+    }
+
+    @Override
+    public String getName() {
+        return this.periodic.toString();
+    }
+
+    @Override
+    public int getDelayMillis() {
+        return this.periodic.getDelayMillis();
+    }
+
+    @Override
+    public void setDelayMillis(int delayMillis) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("Delay must not be negative");
+        }
+
+        this.periodic.setDelayMillis(delayMillis);
+    }
+}
@@ -0,0 +1,24 @@
+package factory.management;
+
+public interface StorageMXBean {
+
+    String getName();
+
+    int getElementsCount();
+
+    int getCapacity();
+
+    void setCapacity(int capacity);
+
+    double getPutsPerSecond();
+
+    double getTakesPerSecond();
+
+    int getWaitingProducersCount();
+
+    int getWaitingConsumersCount();
+
+    double getMeanPutWaitMillis();
+
+    double getMeanTakeWaitMillis();
+}
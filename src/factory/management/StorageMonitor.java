@@ -0,0 +1,65 @@
+package factory.management;
+
+import factory.factory.storage.Storage;
+
+final class StorageMonitor implements StorageMXBean {
+    private final String name;
+    private final Storage<?> storage;
+
+    StorageMonitor(
+            String name,
+            Storage<?> storage) {
+        this.name = name;
+        this.storage = storage;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public int getElementsCount() {
+        return this.storage.getElementsCount();
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.storage.getCapacity();
+    }
+
+    @Override
+    public void setCapacity(int capacity) {
+        this.storage.setCapacity(capacity);
+    }
+
+    @Override
+    public double getPutsPerSecond() {
+        return this.storage.getAdditionRate().getRatePerSecond();
+    }
+
+    @Override
+    public double getTakesPerSecond() {
+        return this.storage.getRemovalRate().getRatePerSecond();
+    }
+
+    @Override
+    public int getWaitingProducersCount() {
+        return this.storage.getWaitingProducersCount();
+    }
+
+    @Override
+    public int getWaitingConsumersCount() {
+        return this.storage.getWaitingConsumersCount();
+    }
+
+    @Override
+    public double getMeanPutWaitMillis() {
+        return this.storage.getPutWaitNanos().getMean() / 1e6;
+    }
+
+    @Override
+    public double getMeanTakeWaitMillis() {
+        return this.storage.getTakeWaitNanos().getMean() / 1e6;
+    }
+}
@@ -0,0 +1,20 @@
+package factory.management;
+
+public interface ThreadPoolMXBean {
+
+    String getScheduling();
+
+    int getWorkersCount();
+
+    void setWorkersCount(int workersCount);
+
+    int getQueuedTasksCount();
+
+    long getCompletedTasksCount();
+
+    String[] getWorkerStatuses();
+
+    double getMeanQueueWaitMillis();
+
+    double getP99QueueWaitMillis();
+}
@@ -0,0 +1,58 @@
+package factory.management;
+
+import factory.threadpool.ThreadPool;
+
+final class ThreadPoolMonitor implements ThreadPoolMXBean {
+    private final ThreadPool pool;
+
+    ThreadPoolMonitor(ThreadPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public String getScheduling() {
+        return this.pool.getScheduling().toString();
+    }
+
+    @Override
+    public int getWorkersCount() {
+        return this.pool.getWorkersCount();
+    }
+
+    @Override
+    public void setWorkersCount(int workersCount) {
+        this.pool.resize(workersCount);
+    }
+
+    @Override
+    public int getQueuedTasksCount() {
+        return this.pool.getQueuedTasksCount();
+    }
+
+    @Override
+    public long getCompletedTasksCount() {
+        return this.pool.getCompletedTasksCount();
+    }
+
+    @Override
+    public String[] getWorkerStatuses() {
+        var workers = this.pool.getWorkersList();
+        var statuses = new String[workers.size()];
+
+        for (int i = 0; i < statuses.length; ++i) {
+            statuses[i] = String.format("%s: %s", workers.get(i), workers.get(i).getStatus());
+        }
+
+        return statuses;
+    }
+
+    @Override
+    public double getMeanQueueWaitMillis() {
+        return this.pool.getQueueWaitNanos().getMean() / 1e6;
+    }
+
+    @Override
+    public double getP99QueueWaitMillis() {
+        return this.pool.getQueueWaitNanos().getValueAtPercentile(99) / 1e6;
+    }
+}
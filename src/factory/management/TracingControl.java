@@ -0,0 +1,27 @@
+package factory.management;
+
+import factory.util.trace.Tracer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+final class TracingControl implements TracingMXBean {
+
+    @Override
+    public boolean isEnabled() {
+        return Tracer.isEnabled();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        Tracer.setEnabled(enabled);
+    }
+
+    @Override
+    public int dump(String file)
+            throws IOException {
+        try (var out = new PrintStream(file)) {
+            return Tracer.dump(out);
+        }
+    }
+}
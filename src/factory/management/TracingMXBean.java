@@ -0,0 +1,12 @@
+package factory.management;
+
+import java.io.IOException;
+
+public interface TracingMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    int dump(String file) throws IOException;
+}
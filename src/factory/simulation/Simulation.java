@@ -0,0 +1,364 @@
+package factory.simulation;
+
+import factory.factory.Factory;
+import factory.factory.storage.Storage;
+import factory.util.Periodic;
+import factory.util.metrics.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Runs a factory's own storages, controller and assembly tasks on one thread and a virtual clock. Suppliers and
+ * dealers are stepped through tryRunOnce by timed events instead of sleeping, and a refused step waits until its
+ * storage changes. Assembly itself takes no time in the factory, so here it is given exponentially distributed
+ * service times on a modelled pool of WorkersCount workers. Events at the same instant run in the order they
+ * were scheduled and every random draw comes from one seeded generator, so a seed always replays the same run.
+ */
+public final class Simulation {
+    private final Factory factory;
+    private final Factory.StorageArea storageArea;
+    private final Random random;
+    private final long meanAssemblyNanos;
+    private final Workers workers;
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final ArrayList<Waiter> waitingSuppliers = new ArrayList<>();
+    private final ArrayDeque<Waiter> waitingDealers = new ArrayDeque<>();
+
+    private long nowNanos = 0;
+    private long nextSequence = 0;
+    private long eventsCount = 0;
+    private long suppliersWaitNanos = 0;
+    private boolean isStarted = false;
+
+    // SalesLog is forced to None: sales are counted by the controller and a journal would only slow the run down
+    public Simulation(
+            Properties properties,
+            long seed,
+            int assemblyMillis)
+            throws IOException, IllegalArgumentException {
+        if (assemblyMillis < 0) {
+            throw new IllegalArgumentException("Assembly time must not be negative");
+        }
+
+        var simulated = new Properties();
+        simulated.putAll(properties);
+        simulated.setProperty("SalesLog", "None");
+
+        var factoryProperties = Factory.FactoryProperties.fromProperties(simulated);
+        this.factory = new Factory(factoryProperties);
+        this.storageArea = this.factory.getStorageArea();
+        this.random = new Random(seed);
+        this.meanAssemblyNanos = TimeUnit.MILLISECONDS.toNanos(assemblyMillis);
+        this.workers = new Workers(factoryProperties.workersCount);
+
+        this.storageArea.controller.setClock(() -> this.nowNanos);
+    }
+
+    public Factory getFactory() {
+        return this.factory;
+    }
+
+    public void setSupplierDelayMillis(int delayMillis) {
+        var suppliers = this.factory.getSuppliers();
+        suppliers.bodiesSupplier.setDelayMillis(delayMillis);
+        suppliers.motorsSupplier.setDelayMillis(delayMillis);
+        for (var supplier : suppliers.accessoriesSuppliers) {
+            supplier.setDelayMillis(delayMillis);
+        }
+    }
+
+    public void setDealerDelayMillis(int delayMillis) {
+        for (var dealer : this.factory.getDealers().dealers) {
+            dealer.setDelayMillis(delayMillis);
+        }
+    }
+
+    // Advances the virtual clock by durationNanos; may be called again to continue the same run
+    public void run(long durationNanos) {
+        if (!this.isStarted) {
+            this.start();
+        }
+
+        long endNanos = this.nowNanos + durationNanos;
+        while (!this.events.isEmpty() && this.events.peek().timeNanos <= endNanos) {
+            var event = this.events.poll();
+            this.advanceTo(event.timeNanos);
+            this.eventsCount += 1;
+
+            if (event.periodic != null) {
+                this.step(event.periodic, event.storage);
+            } else {
+                this.workers.complete(event.task);
+            }
+
+            this.settle();
+        }
+        this.advanceTo(endNanos);
+    }
+
+    // Staggers first steps over one period so that entities with equal delays do not move in lockstep
+    private void start() {
+        this.isStarted = true;
+
+        var suppliers = this.factory.getSuppliers();
+        this.schedule(suppliers.bodiesSupplier, this.storageArea.bodiesStorage);
+        this.schedule(suppliers.motorsSupplier, this.storageArea.motorsStorage);
+        for (var supplier : suppliers.accessoriesSuppliers) {
+            this.schedule(supplier, this.storageArea.accessoriesStorage);
+        }
+        for (var dealer : this.factory.getDealers().dealers) {
+            this.schedule(dealer, null);
+        }
+    }
+
+    private void schedule(Periodic periodic, Storage<?> storage) {
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(periodic.getDelayMillis());
+        this.events.add(new Event(
+                this.nowNanos + (long) (this.random.nextDouble() * delayNanos),
+                this.nextSequence++,
+                periodic,
+                storage,
+                null
+        ));
+    }
+
+    private void step(Periodic periodic, Storage<?> storage) {
+        if (periodic.tryRunOnce()) {
+            long delayNanos = TimeUnit.MILLISECONDS.toNanos(periodic.getDelayMillis());
+            this.events.add(new Event(this.nowNanos + delayNanos, this.nextSequence++, periodic, storage, null));
+        } else if (storage != null) {
+            this.waitingSuppliers.add(new Waiter(periodic, storage, this.nowNanos));
+        } else {
+            this.waitingDealers.add(new Waiter(periodic, null, this.nowNanos));
+        }
+    }
+
+    // Lets everything that the last event unblocked move on before the clock advances again
+    private void settle() {
+        boolean isProgressing;
+        do {
+            this.storageArea.controller.control(this.workers);
+
+            isProgressing = this.workers.unblock();
+            isProgressing |= this.retrySuppliers();
+            isProgressing |= this.retryDealers();
+        } while (isProgressing);
+    }
+
+    private boolean retrySuppliers() {
+        boolean isProgressing = false;
+
+        for (Iterator<Waiter> i = this.waitingSuppliers.iterator(); i.hasNext(); ) {
+            var waiter = i.next();
+            if (waiter.storage.isFull()) {
+                continue;
+            }
+
+            i.remove();
+            this.suppliersWaitNanos += this.nowNanos - waiter.sinceNanos;
+            this.step(waiter.periodic, waiter.storage);
+            isProgressing = true;
+        }
+
+        return isProgressing;
+    }
+
+    private boolean retryDealers() {
+        boolean isProgressing = false;
+
+        while (!this.waitingDealers.isEmpty() && !this.storageArea.carsStorage.isEmpty()) {
+            var waiter = this.waitingDealers.poll();
+            this.step(waiter.periodic, null);
+            isProgressing = true;
+        }
+
+        return isProgressing;
+    }
+
+    private void advanceTo(long timeNanos) {
+        this.workers.busyNanos += (long) this.workers.busyCount * (timeNanos - this.nowNanos);
+        this.nowNanos = timeNanos;
+    }
+
+    private long nextAssemblyNanos() {
+        return (long) (-Math.log(1 - this.random.nextDouble()) * this.meanAssemblyNanos);
+    }
+
+    public long getElapsedNanos() {
+        return this.nowNanos;
+    }
+
+    public long getEventsCount() {
+        return this.eventsCount;
+    }
+
+    public int getCarsSold() {
+        return this.storageArea.controller.getDispatchedCarsCount();
+    }
+
+    // Nanoseconds of virtual time from a dealer's request to its car
+    public Histogram getRequestLatencyNanos() {
+        return this.storageArea.controller.getRequestLatencyNanos();
+    }
+
+    public double getWorkersUtilization() {
+        return this.nowNanos == 0 ? 0 : (double) this.workers.busyNanos / this.nowNanos / this.workers.count;
+    }
+
+    // Share of the suppliers' time spent waiting on a full storage, including waits still in progress
+    public double getSuppliersWaitShare() {
+        var suppliers = this.factory.getSuppliers();
+        int suppliersCount = 2 + suppliers.accessoriesSuppliers.size();
+
+        long waitNanos = this.suppliersWaitNanos;
+        for (var waiter : this.waitingSuppliers) {
+            waitNanos += this.nowNanos - waiter.sinceNanos;
+        }
+
+        return this.nowNanos == 0 ? 0 : (double) waitNanos / this.nowNanos / suppliersCount;
+    }
+
+    public void printStatistics(long wallNanos, PrintStream out) {
+        double elapsedSeconds = this.nowNanos / 1e9;
+        var latency = this.getRequestLatencyNanos();
+
+        out.printf(
+                "Simulated: %.3f s in %.3f s, %d events (%.0f events/s)%n",
+                elapsedSeconds,
+                wallNanos / 1e9,
+                this.eventsCount,
+                this.eventsCount / (wallNanos / 1e9)
+        );
+        out.printf("Cars sold: %d (%.2f cars/s)%n", this.getCarsSold(), this.getCarsSold() / elapsedSeconds);
+        out.printf(
+                "Dealer request latency: mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                latency.getMean() / 1e6,
+                latency.getValueAtPercentile(50) / 1e6,
+                latency.getValueAtPercentile(99) / 1e6,
+                latency.getMax() / 1e6
+        );
+        out.printf("Workers utilization: %.1f%% of %d%n", this.getWorkersUtilization() * 100, this.workers.count);
+        out.printf("Suppliers waiting on full storages: %.1f%%%n", this.getSuppliersWaitShare() * 100);
+        out.printf("Left in storages: %s, %s, %s, %s%n",
+                this.storageArea.bodiesStorage,
+                this.storageArea.motorsStorage,
+                this.storageArea.accessoriesStorage,
+                this.storageArea.carsStorage
+        );
+    }
+
+    /*
+     * Stands in for the workers pool. A task runs only when its service time is over, which is when its car
+     * appears; a worker whose car finds the cars storage full stays busy until a sale makes room, as a real
+     * worker blocked in put would.
+     */
+    private final class Workers implements Executor {
+        private final int count;
+        private final ArrayDeque<Runnable> queuedTasks = new ArrayDeque<>();
+        private final ArrayDeque<Runnable> blockedTasks = new ArrayDeque<>();
+        private int busyCount = 0;
+        private long busyNanos = 0;
+
+        private Workers(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (this.busyCount < this.count) {
+                this.busyCount += 1;
+                this.serve(task);
+            } else {
+                this.queuedTasks.add(task);
+            }
+        }
+
+        private void serve(Runnable task) {
+            long timeNanos = Simulation.this.nowNanos + Simulation.this.nextAssemblyNanos();
+            Simulation.this.events.add(new Event(timeNanos, Simulation.this.nextSequence++, null, null, task));
+        }
+
+        private void complete(Runnable task) {
+            if (Simulation.this.storageArea.carsStorage.isFull()) {
+                this.blockedTasks.add(task);
+            } else {
+                this.finish(task);
+            }
+        }
+
+        private void finish(Runnable task) {
+            task.run();
+
+            var next = this.queuedTasks.poll();
+            if (next != null) {
+                this.serve(next);
+            } else {
+                this.busyCount -= 1;
+            }
+        }
+
+        private boolean unblock() {
+            boolean isProgressing = false;
+
+            while (!this.blockedTasks.isEmpty() && !Simulation.this.storageArea.carsStorage.isFull()) {
+                this.finish(this.blockedTasks.poll());
+                isProgressing = true;
+            }
+
+            return isProgressing;
+        }
+    }
+
+    private static final class Waiter {
+        private final Periodic periodic;
+        private final Storage<?> storage;
+        private final long sinceNanos;
+
+        private Waiter(
+                Periodic periodic,
+                Storage<?> storage,
+                long sinceNanos) {
+            this.periodic = periodic;
+            this.storage = storage;
+            this.sinceNanos = sinceNanos;
+        }
+    }
+
+    // Either a step of a supplier or dealer, with the storage it supplies if any, or the end of an assembly
+    private static final class Event implements Comparable<Event> {
+        private final long timeNanos;
+        private final long sequence;
+        private final Periodic periodic;
+        private final Storage<?> storage;
+        private final Runnable task;
+
+        private Event(
+                long timeNanos,
+                long sequence,
+                Periodic periodic,
+                Storage<?> storage,
+                Runnable task) {
+            this.timeNanos = timeNanos;
+            this.sequence = sequence;
+            this.periodic = periodic;
+            this.storage = storage;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(this.timeNanos, other.timeNanos);
+            return byTime != 0 ? byTime : Long.compare(this.sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package factory.simulation;
+
+import factory.threadpool.ThreadPool;
+import factory.util.metrics.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * Capacity planning over a grid of config values. Every point of the grid is simulated for the same virtual
+ * duration with the same seed, so points differ only in their configuration, and points are spread over one
+ * worker per core. Results go to a CSV file and the best point is printed as config.properties lines.
+ */
+public final class Sweep implements Runnable {
+    private static final Logger logger = Logger.getLogger(Sweep.class.getSimpleName());
+
+    // Points this close to the best throughput are ranked by dealer wait instead
+    private static final double THROUGHPUT_TOLERANCE = 0.01;
+
+    private final Properties baseProperties;
+    private final LinkedHashMap<String, int[]> axes;
+    private final SimulationFactory simulationFactory;
+    private final long durationNanos;
+    private final Path csvFile;
+    private final PrintStream out;
+
+    public Sweep(
+            Properties baseProperties,
+            LinkedHashMap<String, int[]> axes,
+            SimulationFactory simulationFactory,
+            long durationNanos,
+            Path csvFile,
+            PrintStream out)
+            throws IllegalArgumentException {
+        if (axes.isEmpty()) {
+            throw new IllegalArgumentException("At least one property must be swept");
+        }
+        if (durationNanos <= 0) {
+            throw new IllegalArgumentException("Simulated duration must be positive");
+        }
+
+        this.baseProperties = baseProperties;
+        this.axes = axes;
+        this.simulationFactory = simulationFactory;
+        this.durationNanos = durationNanos;
+        this.csvFile = csvFile;
+        this.out = out;
+    }
+
+    // Parses "Key=1,2,4" or "Key=1..8", or any mix of both such as "Key=1..4,8,16", into axes
+    public static void parseAxis(String spec, Map<String, int[]> axes)
+            throws IllegalArgumentException {
+        int separator = spec.indexOf('=');
+        if (separator <= 0 || separator == spec.length() - 1) {
+            throw new IllegalArgumentException(String.format("Bad sweep \"%s\": expected Key=values", spec));
+        }
+
+        var values = new ArrayList<Integer>();
+        for (var item : spec.substring(separator + 1).split(",")) {
+            int range = item.indexOf("..");
+            if (range < 0) {
+                values.add(Integer.parseInt(item.trim()));
+                continue;
+            }
+
+            int from = Integer.parseInt(item.substring(0, range).trim());
+            int to = Integer.parseInt(item.substring(range + 2).trim());
+            if (from > to) {
+                throw new IllegalArgumentException(String.format("Bad sweep \"%s\": empty range %s", spec, item));
+            }
+            for (int value = from; value <= to; ++value) {
+                values.add(value);
+            }
+        }
+
+        axes.put(spec.substring(0, separator).trim(), values.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    @Override
+    public void run() {
+        var points = this.enumeratePoints();
+        var results = new Result[points.size()];
+        var done = new CountDownLatch(points.size());
+
+        int workersCount = Math.min(Runtime.getRuntime().availableProcessors(), points.size());
+        var pool = new ThreadPool(workersCount);
+        pool.run();
+
+        this.out.printf("Simulating %d points on %d workers%n", points.size(), workersCount);
+        long startedAt = System.nanoTime();
+
+        for (int i = 0; i < points.size(); ++i) {
+            final int index = i;
+            pool.execute(() -> {
+                try {
+                    results[index] = this.simulate(points.get(index));
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            pool.shutdown();
+        }
+
+        this.out.printf("Swept in %.3f s%n", (System.nanoTime() - startedAt) / 1e9);
+
+        try {
+            this.writeCsv(points, results);
+            this.out.printf("Wrote %s%n", this.csvFile);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to write \"{0}\": {1}", new Object[] { this.csvFile, e.getMessage() });
+        }
+
+        this.printBest(points, results);
+    }
+
+    // Cartesian product of the axes, the last axis changing fastest
+    private ArrayList<int[]> enumeratePoints() {
+        var lengths = this.axes.values().stream().mapToInt(values -> values.length).toArray();
+        var indices = new int[lengths.length];
+        var points = new ArrayList<int[]>();
+
+        while (true) {
+            var point = new int[lengths.length];
+            int axis = 0;
+            for (var values : this.axes.values()) {
+                point[axis] = values[indices[axis]];
+                axis += 1;
+            }
+            points.add(point);
+
+            axis = lengths.length - 1;
+            while (axis >= 0 && ++indices[axis] == lengths[axis]) {
+                indices[axis] = 0;
+                axis -= 1;
+            }
+            if (axis < 0) {
+                return points;
+            }
+        }
+    }
+
+    private Result simulate(int[] point) {
+        var properties = new Properties();
+        properties.putAll(this.baseProperties);
+
+        int axis = 0;
+        for (var key : this.axes.keySet()) {
+            properties.setProperty(key, Integer.toString(point[axis++]));
+        }
+
+        long allocatedBefore = getAllocatedBytes();
+        final Simulation simulation;
+        try {
+            simulation = this.simulationFactory.newSimulation(properties);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.log(Level.FINE, "Skipped {0}: {1}", new Object[] { Arrays.toString(point), e.getMessage() });
+            return null;
+        }
+
+        simulation.run(this.durationNanos);
+        long allocatedAfter = getAllocatedBytes();
+
+        return new Result(
+                simulation.getCarsSold() / (simulation.getElapsedNanos() / 1e9),
+                simulation.getRequestLatencyNanos(),
+                simulation.getWorkersUtilization(),
+                simulation.getSuppliersWaitShare(),
+                allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore
+        );
+    }
+
+    // Bytes allocated by the calling thread so far, or -1 where the JVM does not count them
+    private static long getAllocatedBytes() {
+        var threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+
+        return -1;
+    }
+
+    private void writeCsv(ArrayList<int[]> points, Result[] results)
+            throws IOException {
+        try (var csv = new PrintStream(Files.newOutputStream(this.csvFile))) {
+            csv.print(String.join(",", this.axes.keySet()));
+            csv.println(",CarsPerSecond,DealerWaitMeanMillis,DealerWaitP99Millis,WorkersUtilization,"
+                    + "SuppliersWaitShare,AllocatedMegabytes");
+
+            for (int i = 0; i < points.size(); ++i) {
+                var result = results[i];
+                if (result == null) {
+                    continue;
+                }
+
+                for (var value : points.get(i)) {
+                    csv.print(value);
+                    csv.print(',');
+                }
+                csv.printf(
+                        "%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        result.carsPerSecond,
+                        result.dealerWaitNanos.getMean() / 1e6,
+                        result.dealerWaitNanos.getValueAtPercentile(99) / 1e6,
+                        result.workersUtilization,
+                        result.suppliersWaitShare,
+                        result.allocatedBytes / 1e6
+                );
+            }
+        }
+    }
+
+    private void printBest(ArrayList<int[]> points, Result[] results) {
+        double maxCarsPerSecond = 0;
+        int skippedCount = 0;
+        for (var result : results) {
+            if (result == null) {
+                skippedCount += 1;
+            } else {
+                maxCarsPerSecond = Math.max(maxCarsPerSecond, result.carsPerSecond);
+            }
+        }
+        if (skippedCount > 0) {
+            this.out.printf("Skipped %d points that are not valid configurations%n", skippedCount);
+        }
+
+        int best = -1;
+        for (int i = 0; i < results.length; ++i) {
+            var result = results[i];
+            if (result == null || result.carsPerSecond < maxCarsPerSecond * (1 - THROUGHPUT_TOLERANCE)) {
+                continue;
+            }
+
+            if (best < 0 || result.dealerWaitP99() < results[best].dealerWaitP99()
+                    || result.dealerWaitP99() == results[best].dealerWaitP99()
+                    && result.allocatedBytes < results[best].allocatedBytes) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            this.out.println("No valid configuration to recommend");
+            return;
+        }
+
+        this.out.printf(
+                "# Best of %d points: %.3f cars/s, dealer wait p99 %.3f ms%n",
+                points.size() - skippedCount,
+                results[best].carsPerSecond,
+                results[best].dealerWaitP99() / 1e6
+        );
+        int axis = 0;
+        for (var key : this.axes.keySet()) {
+            this.out.printf("%s=%d%n", key, points.get(best)[axis++]);
+        }
+    }
+
+    @FunctionalInterface
+    public interface SimulationFactory {
+
+        Simulation newSimulation(Properties properties)
+                throws IOException, IllegalArgumentException;
+    }
+
+    private static final class Result {
+        private final double carsPerSecond;
+        private final Histogram dealerWaitNanos;
+        private final double workersUtilization;
+        private final double suppliersWaitShare;
+        private final long allocatedBytes;
+
+        private Result(
+                double carsPerSecond,
+                Histogram dealerWaitNanos,
+                double workersUtilization,
+                double suppliersWaitShare,
+                long allocatedBytes) {
+            this.carsPerSecond = carsPerSecond;
+            this.dealerWaitNanos = dealerWaitNanos;
+            this.workersUtilization = workersUtilization;
+            this.suppliersWaitShare = suppliersWaitShare;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        private long dealerWaitP99() {
+            return this.dealerWaitNanos.getValueAtPercentile(99);
+        }
+    }
+}
@@ -3,58 +3,146 @@ package factory.threadpool;
 import factory.ui.util.Alterable;
 import factory.ui.util.View;
 import factory.util.UniqueObject;
+import factory.util.WaitQueue;
+import factory.util.jfr.TaskExecutedEvent;
+import factory.util.jfr.TaskQueuedEvent;
+import factory.util.metrics.Histogram;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class ThreadPool implements Executor, Runnable, Alterable {
     private static final Logger logger = Logger.getLogger(ThreadPool.class.getSimpleName());
 
-    private final Queue<Runnable> tasksQueue = new ArrayDeque<>();
-    private final ArrayList<Worker> workersList;
-    private final ArrayList<Thread> managedThreads;
+    private final Scheduling scheduling;
+
+    private final Queue<QueuedTask> tasksQueue = new ArrayDeque<>();
+    private final ReentrantLock tasksLock = new ReentrantLock();
+    private final Condition tasksAvailable = this.tasksLock.newCondition();
+
+    private final AtomicInteger queuedTasksCount = new AtomicInteger();
+    private final LongAdder completedTasksCount = new LongAdder();
+    private final WaitQueue idleWorkers = new WaitQueue();
+    private final ThreadLocal<Worker> currentWorker = new ThreadLocal<>();
+    private final Histogram queueWaitNanos = new Histogram();
+
+    private final ThreadFactory threadFactory;
+    private final Object resizeLock = new Object();
+    private final ConcurrentLinkedQueue<Thread> managedThreads = new ConcurrentLinkedQueue<>();
+    private final LongAdder busyNanos = new LongAdder();
+
+    // Immutable snapshot, replaced as a whole on every resize
+    private volatile List<Worker> workersList;
     private volatile boolean isRunning = false;
 
     private View<? extends Alterable> view;
 
     public ThreadPool(int threadsCount) {
+        this(threadsCount, Scheduling.SHARED_QUEUE, Thread::new);
+    }
+
+    public ThreadPool(
+            int threadsCount,
+            Scheduling scheduling,
+            ThreadFactory threadFactory) {
         if (threadsCount < 1) {
             throw new IllegalArgumentException("Threads count must be positive");
         }
 
-        this.workersList = new ArrayList<>(threadsCount);
-        this.managedThreads = new ArrayList<>(threadsCount);
+        this.scheduling = scheduling;
+        this.threadFactory = threadFactory;
 
+        var workers = new ArrayList<Worker>(threadsCount);
         for (int i = 0; i < threadsCount; ++i) {
-            var worker = new Worker();
-            this.workersList.add(worker);
-            this.managedThreads.add(new Thread(worker));
+            workers.add(new Worker());
         }
+        this.workersList = List.copyOf(workers);
+    }
+
+    public Scheduling getScheduling() {
+        return this.scheduling;
     }
 
     public int getQueuedTasksCount() {
-        synchronized (this.tasksQueue) {
-            return this.tasksQueue.size();
-        }
+        return this.queuedTasksCount.get();
+    }
+
+    public long getCompletedTasksCount() {
+        return this.completedTasksCount.sum();
+    }
+
+    public Histogram getQueueWaitNanos() {
+        return this.queueWaitNanos;
+    }
+
+    public long getBusyNanos() {
+        return this.busyNanos.sum();
     }
 
-    public ArrayList<Worker> getWorkersList() {
+    public List<Worker> getWorkersList() {
         return this.workersList;
     }
 
-    public void stopAcceptingTasks() {
-        this.isRunning = false;
+    public int getWorkersCount() {
+        return this.workersList.size();
     }
 
-    public void shutdown() {
-        if (!this.isRunning) {
-            return;
+    // Added workers start at once; removed ones finish the task at hand and hand their queued tasks over
+    public void resize(int workersCount)
+            throws IllegalArgumentException {
+        if (workersCount < 1) {
+            throw new IllegalArgumentException("Threads count must be positive");
         }
 
+        synchronized (this.resizeLock) {
+            var workers = new ArrayList<>(this.workersList);
+            if (workers.size() == workersCount) {
+                return;
+            }
+
+            while (workers.size() < workersCount) {
+                var worker = new Worker();
+                workers.add(worker);
+                if (this.isRunning) {
+                    worker.start();
+                }
+            }
+
+            var retired = new ArrayList<Worker>();
+            while (workers.size() > workersCount) {
+                retired.add(workers.remove(workers.size() - 1));
+            }
+
+            this.workersList = List.copyOf(workers);
+            for (var worker : retired) {
+                worker.retire();
+            }
+        }
+
+        logger.log(Level.INFO, "{0} resized to {1} workers", new Object[] { this, workersCount });
+        this.updateView();
+    }
+
+    public void stopAcceptingTasks() {
+        this.isRunning = false;
+    }
+
+    // Returns the tasks that were queued but never started, in no particular order
+    public List<Runnable> shutdown() {
         this.isRunning = false;
 
         for (var t : this.managedThreads) {
@@ -67,6 +155,29 @@ public class ThreadPool implements Executor, Runnable, Alterable {
             } catch (InterruptedException ignored) {
             }
         }
+
+        var unstarted = new ArrayList<Runnable>(this.queuedTasksCount.get());
+
+        this.tasksLock.lock();
+        try {
+            for (var task : this.tasksQueue) {
+                unstarted.add(task.command);
+            }
+            this.tasksQueue.clear();
+        } finally {
+            this.tasksLock.unlock();
+        }
+
+        for (var worker : this.workersList) {
+            QueuedTask task;
+            while ((task = worker.tasks.pollFirst()) != null) {
+                unstarted.add(task.command);
+            }
+        }
+
+        this.queuedTasksCount.addAndGet(-unstarted.size());
+        this.updateView();
+        return unstarted;
     }
 
     @Override
@@ -76,11 +187,33 @@ public class ThreadPool implements Executor, Runnable, Alterable {
             throw new IllegalStateException("Thread pool is shut down");
         }
 
-        synchronized (this.tasksQueue) {
-            this.tasksQueue.add(command);
-            this.view.update();
-            this.tasksQueue.notify();
+        var task = new QueuedTask(command);
+
+        if (this.scheduling == Scheduling.WORK_STEALING) {
+            var owner = this.currentWorker.get();
+            if (owner == null) {
+                owner = this.workersList.get(ThreadLocalRandom.current().nextInt(this.workersList.size()));
+            }
+
+            owner.tasks.addLast(task);
+            TaskQueuedEvent.commit(command, this.queuedTasksCount.incrementAndGet());
+            if (owner.isRetiring) {
+                this.handOver(owner);
+            }
+            this.updateView();
+            this.idleWorkers.signal();
+            return;
+        }
+
+        this.tasksLock.lock();
+        try {
+            this.tasksQueue.add(task);
+            TaskQueuedEvent.commit(command, this.queuedTasksCount.incrementAndGet());
+            this.tasksAvailable.signal();
+        } finally {
+            this.tasksLock.unlock();
         }
+        this.updateView();
     }
 
     @Override
@@ -89,10 +222,27 @@ public class ThreadPool implements Executor, Runnable, Alterable {
             return;
         }
 
-        this.isRunning = true;
+        synchronized (this.resizeLock) {
+            this.isRunning = true;
 
-        for (var t : this.managedThreads) {
-            t.start();
+            for (var worker : this.workersList) {
+                worker.start();
+            }
+        }
+    }
+
+    private void handOver(Worker retired) {
+        QueuedTask task;
+        while ((task = retired.tasks.pollFirst()) != null) {
+            var workers = this.workersList;
+            workers.get(ThreadLocalRandom.current().nextInt(workers.size())).tasks.addLast(task);
+            this.idleWorkers.signal();
+        }
+    }
+
+    private void updateView() {
+        if (this.view != null) {
+            this.view.update();
         }
     }
 
@@ -101,54 +251,206 @@ public class ThreadPool implements Executor, Runnable, Alterable {
         this.view = view;
     }
 
+    public enum Scheduling {
+        SHARED_QUEUE("SharedQueue"),
+        WORK_STEALING("WorkStealing");
+
+        private final String configName;
+
+        Scheduling(String configName) {
+            this.configName = configName;
+        }
+
+        public static Scheduling fromConfigName(String configName)
+                throws IllegalArgumentException {
+            for (var scheduling : Scheduling.values()) {
+                if (scheduling.configName.equals(configName)) {
+                    return scheduling;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("Unknown workers scheduling \"%s\"", configName));
+        }
+
+        @Override
+        public String toString() {
+            return this.configName;
+        }
+    }
+
+    private static final class QueuedTask {
+        // Returned to a waiting worker that has been retired
+        private static final QueuedTask RETIRED = new QueuedTask(() -> {
+        });
+
+        private final Runnable command;
+        private final long queuedAtNanos = System.nanoTime();
+
+        private QueuedTask(Runnable command) {
+            this.command = command;
+        }
+    }
+
     public final class Worker extends UniqueObject implements Runnable, Alterable {
+        private final Deque<QueuedTask> tasks = new ConcurrentLinkedDeque<>();
+
+        private final Thread thread;
+
         private View<? extends Alterable> view;
-        private String status;
+        private volatile String status;
+        private volatile boolean isRetiring = false;
 
         private Worker() {
+            this.thread = ThreadPool.this.threadFactory.newThread(this);
+            ThreadPool.this.managedThreads.add(this.thread);
+        }
+
+        private void start() {
+            this.thread.start();
+        }
+
+        private void retire() {
+            this.isRetiring = true;
+
+            if (ThreadPool.this.scheduling == Scheduling.WORK_STEALING) {
+                ThreadPool.this.idleWorkers.signalAll();
+                ThreadPool.this.handOver(this);
+                return;
+            }
+
+            ThreadPool.this.tasksLock.lock();
+            try {
+                ThreadPool.this.tasksAvailable.signalAll();
+            } finally {
+                ThreadPool.this.tasksLock.unlock();
+            }
         }
 
         public String getStatus() {
             return this.status;
         }
 
+        private void setStatus(String status) {
+            this.status = status;
+            if (this.view != null) {
+                this.view.update();
+            }
+        }
+
+        private QueuedTask takeSharedTask()
+                throws InterruptedException {
+            final QueuedTask task;
+
+            ThreadPool.this.tasksLock.lockInterruptibly();
+            try {
+                while (ThreadPool.this.tasksQueue.isEmpty()) {
+                    if (this.isRetiring) {
+                        return null;
+                    }
+
+                    this.setStatus("Waiting for tasks");
+                    ThreadPool.this.tasksAvailable.await();
+                }
+
+                task = ThreadPool.this.tasksQueue.poll();
+                ThreadPool.this.queuedTasksCount.decrementAndGet();
+            } finally {
+                ThreadPool.this.tasksLock.unlock();
+            }
+
+            ThreadPool.this.updateView();
+            return task;
+        }
+
+        private QueuedTask takeOwnOrStolenTask()
+                throws InterruptedException {
+            var task = this.findTask();
+            if (task == null) {
+                this.setStatus("Waiting for tasks");
+                task = ThreadPool.this.idleWorkers.await(
+                        () -> this.isRetiring ? QueuedTask.RETIRED : this.findTask()
+                );
+                if (task == QueuedTask.RETIRED) {
+                    return null;
+                }
+            }
+
+            ThreadPool.this.updateView();
+            return task;
+        }
+
+        private QueuedTask findTask() {
+            var task = this.tasks.pollLast();
+
+            if (task == null) {
+                var workers = ThreadPool.this.workersList;
+                int start = ThreadLocalRandom.current().nextInt(workers.size());
+
+                for (int i = 0; i < workers.size() && task == null; ++i) {
+                    var victim = workers.get((start + i) % workers.size());
+                    if (victim != this) {
+                        task = victim.tasks.pollFirst();
+                    }
+                }
+            }
+
+            if (task != null) {
+                ThreadPool.this.queuedTasksCount.decrementAndGet();
+            }
+
+            return task;
+        }
+
         @Override
         public void run() {
-            outer:
-            while (ThreadPool.this.isRunning) {
-                final Runnable task;
-                synchronized (ThreadPool.this.tasksQueue) {
-                    while (ThreadPool.this.tasksQueue.isEmpty()) {
-                        try {
-                            this.status = "Waiting for tasks";
-                            if (this.view != null) {
-                                this.view.update();
-                            }
-                            ThreadPool.this.tasksQueue.wait();
-                        } catch (InterruptedException e) {
-                            ThreadPool.logger.log(
-                                    Level.INFO, "{0}.{1} was interrupted while waiting for tasks",
-                                    new Object[] { ThreadPool.class.getSimpleName(), this }
-                            );
-                            break outer;
-                        }
-                    }
-                    task = ThreadPool.this.tasksQueue.poll();
-                    ThreadPool.this.view.update();
+            ThreadPool.this.currentWorker.set(this);
+
+            while (ThreadPool.this.isRunning && !this.isRetiring) {
+                final QueuedTask task;
+                try {
+                    task = ThreadPool.this.scheduling == Scheduling.WORK_STEALING
+                            ? this.takeOwnOrStolenTask()
+                            : this.takeSharedTask();
+                } catch (InterruptedException e) {
+                    ThreadPool.logger.log(
+                            Level.INFO, "{0}.{1} was interrupted while waiting for tasks",
+                            new Object[] { ThreadPool.class.getSimpleName(), this }
+                    );
+                    break;
                 }
 
-                this.status = "Running task";
-                if (this.view != null) {
-                    this.view.update();
+                if (task == null) {
+                    break;
                 }
 
-                task.run();
+                long queueWaitNanos = System.nanoTime() - task.queuedAtNanos;
+                ThreadPool.this.queueWaitNanos.record(queueWaitNanos);
+                this.setStatus("Running task");
+
+                var executed = new TaskExecutedEvent();
+                executed.begin();
+                long startedAt = System.nanoTime();
+                task.command.run();
+                ThreadPool.this.busyNanos.add(System.nanoTime() - startedAt);
+                executed.end();
+                if (executed.shouldCommit()) {
+                    executed.workerId = this.getId();
+                    executed.task = task.command.toString();
+                    executed.queueWaitNanos = queueWaitNanos;
+                    executed.commit();
+                }
+                ThreadPool.this.completedTasksCount.increment();
+
+                this.setStatus("Finished task");
+            }
 
-                this.status = "Finished task";
-                if (this.view != null) {
-                    this.view.update();
+            if (this.isRetiring) {
+                if (ThreadPool.this.scheduling == Scheduling.WORK_STEALING) {
+                    ThreadPool.this.handOver(this);
                 }
+                this.setStatus("Retired");
             }
+            ThreadPool.this.managedThreads.remove(this.thread);
         }
 
         @Override
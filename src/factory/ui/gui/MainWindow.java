@@ -3,6 +3,7 @@ package factory.ui.gui;
 import factory.factory.Factory;
 import factory.ui.gui.tab.SettingsTab;
 import factory.ui.gui.tab.StatusTab;
+import factory.ui.gui.util.ViewUpdateBus;
 
 import javax.swing.*;
 import java.awt.event.WindowAdapter;
@@ -10,11 +11,13 @@ import java.awt.event.WindowEvent;
 
 public final class MainWindow extends JFrame implements Runnable {
     private final Factory factory;
+    private final ViewUpdateBus updateBus;
 
     public MainWindow(Factory factory) {
         super("Factory");
 
         this.factory = factory;
+        this.updateBus = new ViewUpdateBus(factory.getProperties().viewUpdatesPerSecond);
 
         this.init();
 
@@ -22,6 +25,7 @@ public final class MainWindow extends JFrame implements Runnable {
         this.addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
+                MainWindow.this.updateBus.stop();
                 MainWindow.this.factory.shutdown();
             }
         });
@@ -34,7 +38,15 @@ public final class MainWindow extends JFrame implements Runnable {
     private void init() {
         var tabbedPane = new JTabbedPane();
 
-        tabbedPane.addTab("Status", new StatusTab(this.factory.getStorageArea(), this.factory.getWorkersPool()));
+        tabbedPane.addTab(
+                "Status",
+                new StatusTab(
+                        this.factory.getStorageArea(),
+                        this.factory.getWorkersPool(),
+                        this.factory.getMetrics(),
+                        this.updateBus
+                )
+        );
         tabbedPane.addTab("Settings", new SettingsTab(this.factory.getSuppliers(), this.factory.getDealers()));
 
         this.getContentPane().add(tabbedPane);
@@ -42,7 +54,10 @@ public final class MainWindow extends JFrame implements Runnable {
 
     @Override
     public void run() {
-        SwingUtilities.invokeLater(() -> this.setVisible(true));
+        SwingUtilities.invokeLater(() -> {
+            this.setVisible(true);
+            this.updateBus.start();
+        });
         JOptionPane.showMessageDialog(
                 this,
                 "The factory will run with the following parameters:\n"
@@ -1,6 +1,7 @@
 package factory.ui.gui.tab;
 
 import factory.factory.Factory;
+import factory.factory.FactoryMetrics;
 import factory.factory.car.Car;
 import factory.factory.car.parts.Accessory;
 import factory.factory.car.parts.Body;
@@ -9,41 +10,56 @@ import factory.factory.storage.CarStorageController;
 import factory.factory.storage.Storage;
 import factory.threadpool.ThreadPool;
 import factory.ui.gui.util.VerticalScrollablePanel;
+import factory.ui.gui.util.ViewUpdateBus;
 import factory.ui.util.View;
 import factory.util.UniqueObject;
+import factory.util.metrics.Histogram;
 
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public final class StatusTab extends JTabbedPane {
     private static final String STORAGE_INFO_TAB = "Storage Info";
     private static final String WORKERS_INFO_TAB = "Workers Info";
+    private static final String METRICS_TAB = "Metrics";
 
     public StatusTab(
             Factory.StorageArea storageArea,
-            ThreadPool workersPool) {
-        this.init(storageArea, workersPool);
+            ThreadPool workersPool,
+            FactoryMetrics metrics,
+            ViewUpdateBus updateBus) {
+        this.init(storageArea, workersPool, metrics, updateBus);
     }
 
     private void init(
             Factory.StorageArea storageArea,
-            ThreadPool workersPool) {
-        this.addTab(STORAGE_INFO_TAB, new StorageInfoTab(storageArea));
-        this.addTab(WORKERS_INFO_TAB, new WorkersInfoTab(workersPool));
+            ThreadPool workersPool,
+            FactoryMetrics metrics,
+            ViewUpdateBus updateBus) {
+        this.addTab(STORAGE_INFO_TAB, new StorageInfoTab(storageArea, updateBus));
+        this.addTab(WORKERS_INFO_TAB, new WorkersInfoTab(workersPool, updateBus));
+        this.addTab(METRICS_TAB, new MetricsTab(metrics));
     }
 
     private static final class StorageInfoTab extends JPanel {
         private static final int PREFERRED_LABEL_WIDTH = 85;
         private static final int PREFERRED_LABEL_HEIGHT = 25;
 
-        private StorageInfoTab(Factory.StorageArea storageArea) {
+        private StorageInfoTab(
+                Factory.StorageArea storageArea,
+                ViewUpdateBus updateBus) {
             this.init(
                     storageArea.bodiesStorage,
                     storageArea.motorsStorage,
                     storageArea.accessoriesStorage,
                     storageArea.carsStorage,
-                    storageArea.controller
+                    storageArea.controller,
+                    updateBus
             );
         }
 
@@ -52,13 +68,14 @@ public final class StatusTab extends JTabbedPane {
                 Storage<Motor> motorsStorage,
                 Storage<Accessory> accessoriesStorage,
                 Storage<Car> carsStorage,
-                CarStorageController carStorageController) {
+                CarStorageController carStorageController,
+                ViewUpdateBus updateBus) {
             this.setLayout(new GridLayout(5, 1));
-            this.add(new StorageInfoTab.StorageViewPanel<>("Bodies", bodiesStorage));
-            this.add(new StorageInfoTab.StorageViewPanel<>("Motors", motorsStorage));
-            this.add(new StorageInfoTab.StorageViewPanel<>("Accessories", accessoriesStorage));
-            this.add(new StorageInfoTab.StorageViewPanel<>("Cars", carsStorage));
-            this.add(new StorageInfoTab.CarsSoldPanel(carStorageController));
+            this.add(new StorageInfoTab.StorageViewPanel<>("Bodies", bodiesStorage, updateBus));
+            this.add(new StorageInfoTab.StorageViewPanel<>("Motors", motorsStorage, updateBus));
+            this.add(new StorageInfoTab.StorageViewPanel<>("Accessories", accessoriesStorage, updateBus));
+            this.add(new StorageInfoTab.StorageViewPanel<>("Cars", carsStorage, updateBus));
+            this.add(new StorageInfoTab.CarsSoldPanel(carStorageController, updateBus));
         }
 
         private static final class StorageViewPanel<E extends UniqueObject>
@@ -70,9 +87,10 @@ public final class StatusTab extends JTabbedPane {
 
             private StorageViewPanel(
                     String storageName,
-                    Storage<E> monitoredStorage) {
+                    Storage<E> monitoredStorage,
+                    ViewUpdateBus updateBus) {
                 this.monitoredStorage = monitoredStorage;
-                this.monitoredStorage.setView(this);
+                updateBus.attach(this.monitoredStorage, this);
 
                 this.init(storageName);
             }
@@ -128,9 +146,11 @@ public final class StatusTab extends JTabbedPane {
             private final CarStorageController monitoredController;
             private JLabel carsSold;
 
-            private CarsSoldPanel(CarStorageController monitoredController) {
+            private CarsSoldPanel(
+                    CarStorageController monitoredController,
+                    ViewUpdateBus updateBus) {
                 this.monitoredController = monitoredController;
-                this.monitoredController.setView(this);
+                updateBus.attach(this.monitoredController, this);
 
                 this.init();
             }
@@ -161,29 +181,72 @@ public final class StatusTab extends JTabbedPane {
         private static final int PREFERRED_LABEL_WIDTH = 85;
         private static final int PREFERRED_LABEL_HEIGHT = 25;
 
-        private WorkersInfoTab(ThreadPool workersPool) {
-            this.init(workersPool);
+        private final ThreadPool workersPool;
+        private final ViewUpdateBus updateBus;
+        private final LinkedHashMap<ThreadPool.Worker, WorkerInfoPanel> workerPanels = new LinkedHashMap<>();
+        private List<ThreadPool.Worker> shownWorkers;
+        private JComponent workersList;
+
+        private WorkersInfoTab(
+                ThreadPool workersPool,
+                ViewUpdateBus updateBus) {
+            this.workersPool = workersPool;
+            this.updateBus = updateBus;
+            this.init();
         }
 
-        private void init(ThreadPool workersPool) {
+        private void init() {
             this.setLayout(new BorderLayout());
-            var workersList = new ArrayList<JComponent>(workersPool.getWorkersList().size());
+            this.add(
+                    new WorkersPoolInfoPanel(this.workersPool, this.updateBus, this::onWorkersChanged),
+                    BorderLayout.NORTH
+            );
+            this.onWorkersChanged();
+        }
 
-            for (var worker : workersPool.getWorkersList()) {
-                workersList.add(new WorkerInfoPanel(worker));
+        // The pool swaps its workers list on every resize, so a changed reference means the panels are stale
+        private void onWorkersChanged() {
+            var workers = this.workersPool.getWorkersList();
+            if (workers == this.shownWorkers) {
+                return;
+            }
+            this.shownWorkers = workers;
+
+            var panels = new ArrayList<JComponent>(workers.size());
+            var retired = new LinkedHashMap<>(this.workerPanels);
+            this.workerPanels.clear();
+
+            for (var worker : workers) {
+                var panel = retired.remove(worker);
+                if (panel == null) {
+                    panel = new WorkerInfoPanel(worker, this.updateBus);
+                }
+                this.workerPanels.put(worker, panel);
+                panels.add(panel);
             }
 
-            this.add(new WorkersPoolInfoPanel(workersPool), BorderLayout.NORTH);
-            this.add(new VerticalScrollablePanel(workersList), BorderLayout.CENTER);
+            for (var worker : retired.keySet()) {
+                this.updateBus.detach(worker);
+            }
+
+            if (this.workersList != null) {
+                this.remove(this.workersList);
+            }
+            this.workersList = new VerticalScrollablePanel(panels);
+            this.add(this.workersList, BorderLayout.CENTER);
+            this.revalidate();
+            this.repaint();
         }
 
         private static final class WorkerInfoPanel extends JPanel implements View<ThreadPool.Worker> {
             private final ThreadPool.Worker monitoredWorker;
             private JLabel status;
 
-            private WorkerInfoPanel(ThreadPool.Worker worker) {
+            private WorkerInfoPanel(
+                    ThreadPool.Worker worker,
+                    ViewUpdateBus updateBus) {
                 this.monitoredWorker = worker;
-                this.monitoredWorker.setView(this);
+                updateBus.attach(this.monitoredWorker, this);
                 this.init();
             }
 
@@ -211,17 +274,37 @@ public final class StatusTab extends JTabbedPane {
         }
 
         private static final class WorkersPoolInfoPanel extends JPanel implements View<ThreadPool> {
+            private JLabel workersCount;
             private JLabel queuedTasks;
             private final ThreadPool monitoredPool;
+            private final Runnable onWorkersChanged;
 
-            private WorkersPoolInfoPanel(ThreadPool workersPool) {
+            private WorkersPoolInfoPanel(
+                    ThreadPool workersPool,
+                    ViewUpdateBus updateBus,
+                    Runnable onWorkersChanged) {
                 this.monitoredPool = workersPool;
-                this.monitoredPool.setView(this);
+                this.onWorkersChanged = onWorkersChanged;
+                updateBus.attach(this.monitoredPool, this);
                 this.init();
             }
 
             private void init() {
-                this.setLayout(new BorderLayout());
+                this.setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+
+                var workersPanel = new JPanel(new BorderLayout());
+                var workersInfo = new JLabel("Workers");
+                workersInfo.setPreferredSize(new Dimension(PREFERRED_LABEL_WIDTH, PREFERRED_LABEL_HEIGHT));
+
+                this.workersCount = new JLabel(String.valueOf(this.monitoredPool.getWorkersCount()));
+                this.workersCount.setPreferredSize(
+                        new Dimension(PREFERRED_LABEL_WIDTH * 2, PREFERRED_LABEL_HEIGHT)
+                );
+
+                workersPanel.add(workersInfo, BorderLayout.WEST);
+                workersPanel.add(this.workersCount, BorderLayout.CENTER);
+
+                this.add(workersPanel);
 
                 var panel = new JPanel(new BorderLayout());
                 var info = new JLabel("Tasks queued");
@@ -235,12 +318,104 @@ public final class StatusTab extends JTabbedPane {
                 panel.add(info, BorderLayout.WEST);
                 panel.add(this.queuedTasks, BorderLayout.CENTER);
 
-                this.add(panel, BorderLayout.WEST);
+                this.add(panel);
             }
 
             @Override
             public void update() {
+                this.workersCount.setText(String.valueOf(this.monitoredPool.getWorkersCount()));
                 this.queuedTasks.setText(String.valueOf(this.monitoredPool.getQueuedTasksCount()));
+                this.onWorkersChanged.run();
+            }
+        }
+    }
+
+    // Histograms change with every car, so the tab samples them on its own timer instead of listening for updates
+    private static final class MetricsTab extends JPanel {
+        private static final int REFRESH_MILLIS = 1000;
+
+        private final FactoryMetrics metrics;
+        private final Timer refresher;
+        private JLabel rates;
+        private LatenciesTableModel latencies;
+
+        private MetricsTab(FactoryMetrics metrics) {
+            this.metrics = metrics;
+            this.refresher = new Timer(REFRESH_MILLIS, event -> this.refresh());
+            this.init();
+        }
+
+        private void init() {
+            this.setLayout(new BorderLayout());
+
+            this.rates = new JLabel();
+            this.latencies = new LatenciesTableModel(this.metrics.getLatencies());
+
+            this.add(this.rates, BorderLayout.NORTH);
+            this.add(new JScrollPane(new JTable(this.latencies)), BorderLayout.CENTER);
+
+            this.refresh();
+        }
+
+        private void refresh() {
+            this.rates.setText(String.format(
+                    "Cars/s: %.2f    Parts/s: %.2f",
+                    this.metrics.getCarsPerSecond(),
+                    this.metrics.getPartsPerSecond()
+            ));
+            this.latencies.fireTableRowsUpdated(0, this.latencies.getRowCount() - 1);
+        }
+
+        @Override
+        public void addNotify() {
+            super.addNotify();
+            this.refresher.start();
+        }
+
+        @Override
+        public void removeNotify() {
+            this.refresher.stop();
+            super.removeNotify();
+        }
+
+        private static final class LatenciesTableModel extends AbstractTableModel {
+            private static final String[] COLUMNS = { "Metric", "Count", "Mean, ms", "p50, ms", "p99, ms", "Max, ms" };
+
+            private final String[] names;
+            private final Histogram[] histograms;
+
+            private LatenciesTableModel(Map<String, Histogram> latencies) {
+                this.names = latencies.keySet().toArray(new String[0]);
+                this.histograms = latencies.values().toArray(new Histogram[0]);
+            }
+
+            @Override
+            public int getRowCount() {
+                return this.names.length;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return COLUMNS.length;
+            }
+
+            @Override
+            public String getColumnName(int column) {
+                return COLUMNS[column];
+            }
+
+            @Override
+            public Object getValueAt(int row, int column) {
+                var histogram = this.histograms[row];
+
+                return switch (column) {
+                    case 0 -> this.names[row];
+                    case 1 -> String.valueOf(histogram.getCount());
+                    case 2 -> String.format("%.3f", histogram.getMean() / 1e6);
+                    case 3 -> String.format("%.3f", histogram.getValueAtPercentile(50) / 1e6);
+                    case 4 -> String.format("%.3f", histogram.getValueAtPercentile(99) / 1e6);
+                    default -> String.format("%.3f", histogram.getMax() / 1e6);
+                };
             }
         }
     }
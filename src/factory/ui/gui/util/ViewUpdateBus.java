@@ -0,0 +1,72 @@
+package factory.ui.gui.util;
+
+import factory.ui.util.Alterable;
+import factory.ui.util.View;
+
+import javax.swing.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class ViewUpdateBus {
+    private final CopyOnWriteArrayList<CoalescingView<?>> views = new CopyOnWriteArrayList<>();
+    private final Timer publisher;
+
+    public ViewUpdateBus(int maxUpdatesPerSecond)
+            throws IllegalArgumentException {
+        if (maxUpdatesPerSecond < 1) {
+            throw new IllegalArgumentException("Updates frequency must be positive");
+        }
+
+        this.publisher = new Timer(Math.max(1, 1000 / maxUpdatesPerSecond), event -> this.publish());
+        this.publisher.setCoalesce(true);
+    }
+
+    public <T extends Alterable> void attach(T model, View<T> view) {
+        var coalescingView = new CoalescingView<>(model, view);
+        this.views.add(coalescingView);
+        model.setView(coalescingView);
+    }
+
+    public <T extends Alterable> void detach(T model) {
+        this.views.removeIf(view -> view.model == model);
+        model.setView(null);
+    }
+
+    public void start() {
+        this.publisher.start();
+    }
+
+    public void stop() {
+        this.publisher.stop();
+    }
+
+    private void publish() {
+        for (var view : this.views) {
+            view.publish();
+        }
+    }
+
+    private static final class CoalescingView<T extends Alterable> implements View<T> {
+        private final T model;
+        private final View<T> view;
+        private final AtomicBoolean isDirty = new AtomicBoolean(false);
+
+        private CoalescingView(T model, View<T> view) {
+            this.model = model;
+            this.view = view;
+        }
+
+        @Override
+        public void update() {
+            if (!this.isDirty.get()) {
+                this.isDirty.set(true);
+            }
+        }
+
+        private void publish() {
+            if (this.isDirty.getAndSet(false)) {
+                this.view.update();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package factory.ui.headless;
+
+import factory.factory.Factory;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+public final class HeadlessRunner implements Runnable {
+    private static final long POLL_MILLIS = 100;
+
+    private final Factory factory;
+    private final long durationMillis;
+    private final int carsLimit;
+    private final PrintStream out;
+
+    public HeadlessRunner(
+            Factory factory,
+            long durationMillis,
+            int carsLimit,
+            PrintStream out)
+            throws IllegalArgumentException {
+        if (durationMillis <= 0 && carsLimit <= 0) {
+            throw new IllegalArgumentException("Either a duration or a cars limit must be set");
+        }
+
+        this.factory = factory;
+        this.durationMillis = durationMillis;
+        this.carsLimit = carsLimit;
+        this.out = out;
+    }
+
+    @Override
+    public void run() {
+        var controller = this.factory.getStorageArea().controller;
+
+        long startedAt = System.nanoTime();
+        this.factory.run();
+
+        try {
+            while (true) {
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                if (this.durationMillis > 0 && elapsedMillis >= this.durationMillis) {
+                    break;
+                }
+                if (this.carsLimit > 0 && controller.getDispatchedCarsCount() >= this.carsLimit) {
+                    break;
+                }
+
+                Thread.sleep(POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            long elapsedNanos = System.nanoTime() - startedAt;
+            this.factory.shutdown();
+            printStatistics(this.factory, elapsedNanos, this.out);
+        }
+    }
+
+    static void printStatistics(Factory factory, long elapsedNanos, PrintStream out) {
+        var storageArea = factory.getStorageArea();
+        var controller = storageArea.controller;
+        double elapsedSeconds = elapsedNanos / 1e9;
+        int carsSold = controller.getDispatchedCarsCount();
+
+        out.printf("Elapsed: %.3f s%n", elapsedSeconds);
+        out.printf("Cars sold: %d (%.2f cars/s)%n", carsSold, carsSold / elapsedSeconds);
+        out.printf(
+                "Dealer request latency: mean %.3f ms, max %.3f ms%n",
+                controller.getMeanRequestMillis(),
+                controller.getMaxRequestMillis()
+        );
+        out.printf("Left in storages: %s, %s, %s, %s%n",
+                storageArea.bodiesStorage,
+                storageArea.motorsStorage,
+                storageArea.accessoriesStorage,
+                storageArea.carsStorage
+        );
+
+        var metrics = factory.getMetrics();
+        out.printf(
+                "Rates over the last seconds: %.2f cars/s, %.2f parts/s%n",
+                metrics.getCarsPerSecond(),
+                metrics.getPartsPerSecond()
+        );
+        if (metrics.getDroppedSalesCount() > 0) {
+            out.printf("Sales dropped by the sales log: %d%n", metrics.getDroppedSalesCount());
+        }
+        out.printf("%-32s %10s %12s %12s %12s %12s%n", "Latency, ms", "count", "mean", "p50", "p99", "max");
+        for (var latency : metrics.getLatencies().entrySet()) {
+            var histogram = latency.getValue();
+            out.printf(
+                    "%-32s %10d %12.3f %12.3f %12.3f %12.3f%n",
+                    latency.getKey(),
+                    histogram.getCount(),
+                    histogram.getMean() / 1e6,
+                    histogram.getValueAtPercentile(50) / 1e6,
+                    histogram.getValueAtPercentile(99) / 1e6,
+                    histogram.getMax() / 1e6
+            );
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package factory.ui.headless;
+
+import factory.factory.Factory;
+import factory.factory.car.parts.Accessory;
+import factory.factory.car.parts.Body;
+import factory.factory.car.parts.Motor;
+import factory.factory.events.EventLogReader;
+import factory.factory.events.EventType;
+import factory.factory.storage.Storage;
+import factory.util.UniqueObject;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/*
+ * Re-drives a factory's pipeline from a recorded event log with every delay taken out. One loop walks the log in
+ * sequence order and performs the deliveries and sales itself, while takes and assemblies come from the factory's
+ * own controller and workers. Every event took its sequence number inside the storage operation it records, so
+ * the log order is the order each storage saw its parts and cars in: a take always comes after the delivery of
+ * its part and a sale after the assembly of its car. The loop waits for the pipeline to catch up with each logged
+ * take and assembly before it moves past it, so no delivery or sale overtakes an event that preceded it in the
+ * recording. Beyond that it only waits where the recorded run did: a sale for its car, and a delivery for room in
+ * a full storage, which holds back the later deliveries into that storage but not the rest of the log. Each dealer
+ * keeps a request open while it has sales left, so the controller sees the demand behind the recorded takes.
+ * Once done, the bodies of the sold cars are compared with the recording to check that sales came in the same
+ * order. Several workers may finish cars in another order than they did when recording, which the check reports.
+ */
+public final class ReplayRunner implements Runnable {
+    private static final long STALL_MILLIS = 5_000;
+    private static final long POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int SPINS_BEFORE_PARKING = 100;
+
+    private final Factory factory;
+    private final EventLogReader log;
+    private final PrintStream out;
+
+    // The log in sequence order, without the holes left by lost records
+    private final IntList types = new IntList();
+    private final IntList actorIds = new IntList();
+    private final IntList objectIds = new IntList();
+    private final IntList storageIds = new IntList();
+
+    // Body ids of the sold cars in recorded and in replayed order
+    private final IntList recordedSales = new IntList();
+    private final IntList replayedSales = new IntList();
+
+    private final LinkedHashMap<Integer, DealerRequest> requestsByDealer = new LinkedHashMap<>();
+
+    private PartsFeed<Body> bodies;
+    private PartsFeed<Motor> motors;
+    private PartsFeed<Accessory> accessories;
+
+    public ReplayRunner(
+            Factory factory,
+            EventLogReader log,
+            PrintStream out) {
+        this.factory = factory;
+        this.log = log;
+        this.out = out;
+    }
+
+    private void load()
+            throws IOException {
+        this.log.forEach((sequence, nanos, type, actorId, objectId, storageId) -> {
+            this.types.add(type.ordinal());
+            this.actorIds.add(actorId);
+            this.objectIds.add(objectId);
+            this.storageIds.add(storageId);
+        });
+
+        // A task takes its body before it stores its car, and a car is stored before it is sold
+        var bodyByTask = new HashMap<Integer, Integer>();
+        var taskByCar = new HashMap<Integer, Integer>();
+
+        for (int i = 0; i < this.types.size; ++i) {
+            int actorId = this.actorIds.ids[i];
+            int objectId = this.objectIds.ids[i];
+
+            switch (EventType.values()[this.types.ids[i]]) {
+                case PART_TAKEN:
+                    if (this.storageIds.ids[i] == this.log.getBodiesStorageId()) {
+                        bodyByTask.put(actorId, objectId);
+                    }
+                    break;
+                case CAR_ASSEMBLED:
+                    taskByCar.put(objectId, actorId);
+                    break;
+                case CAR_SOLD:
+                    this.requestsByDealer.computeIfAbsent(actorId, ignored -> new DealerRequest()).salesLeft += 1;
+                    this.recordedSales.add(bodyByTask.getOrDefault(taskByCar.getOrDefault(objectId, -1), -1));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            this.load();
+        } catch (IOException e) {
+            this.out.printf("Failed to read %s: %s%n", this.log, e.getMessage());
+            return;
+        }
+
+        var storageArea = this.factory.getStorageArea();
+        var controller = storageArea.controller;
+        this.bodies = new PartsFeed<>(storageArea.bodiesStorage, Body::new);
+        this.motors = new PartsFeed<>(storageArea.motorsStorage, Motor::new);
+        this.accessories = new PartsFeed<>(storageArea.accessoriesStorage, Accessory::new);
+
+        this.out.printf(
+                "Replaying %d events with %d sales by %d dealers%n",
+                this.types.size,
+                this.recordedSales.size,
+                this.requestsByDealer.size()
+        );
+
+        long startedAt = System.nanoTime();
+        this.factory.runPipeline();
+        for (var request : this.requestsByDealer.values()) {
+            request.requestedAt = controller.openRequest();
+        }
+
+        int assembledExpected = 0;
+        int stalledAt = -1;
+
+        for (int i = 0; i < this.types.size && stalledAt < 0; ++i) {
+            var feed = this.getFeed(this.storageIds.ids[i]);
+
+            final boolean isDone;
+            switch (EventType.values()[this.types.ids[i]]) {
+                case PART_DELIVERED:
+                    if (feed != null) {
+                        feed.deliver(this.objectIds.ids[i]);
+                    }
+                    isDone = true;
+                    break;
+                case PART_TAKEN:
+                    if (feed != null) {
+                        feed.expectTake();
+                    }
+                    isDone = feed == null || this.awaitPipeline(feed::isTakenAsLogged);
+                    break;
+                case CAR_ASSEMBLED:
+                    int expected = ++assembledExpected;
+                    isDone = this.awaitPipeline(() -> controller.getAssembledCarsCount() >= expected);
+                    break;
+                case CAR_SOLD:
+                    isDone = this.sell(this.requestsByDealer.get(this.actorIds.ids[i]));
+                    break;
+                default:
+                    isDone = true;
+                    break;
+            }
+
+            if (!isDone) {
+                stalledAt = i;
+            }
+        }
+        this.awaitProgress(() -> this.bodies.isFlushed() && this.motors.isFlushed() && this.accessories.isFlushed());
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        for (var request : this.requestsByDealer.values()) {
+            if (request.salesLeft > 0) {
+                controller.cancelRequest();
+            }
+        }
+        this.factory.shutdown();
+
+        if (stalledAt >= 0) {
+            this.out.printf(
+                    "Replay stalled at event %d of %d (%s): the pipeline did not catch up for %d ms%n",
+                    stalledAt,
+                    this.types.size,
+                    EventType.values()[this.types.ids[stalledAt]],
+                    STALL_MILLIS
+            );
+        }
+        int undelivered = this.bodies.pendingParts.size() + this.motors.pendingParts.size()
+                + this.accessories.pendingParts.size();
+        if (undelivered > 0) {
+            this.out.printf("%d deliveries were left undelivered%n", undelivered);
+        }
+        this.printSalesOrder();
+        HeadlessRunner.printStatistics(this.factory, elapsedNanos, this.out);
+    }
+
+    private PartsFeed<?> getFeed(int storageId) {
+        if (storageId == this.log.getBodiesStorageId()) {
+            return this.bodies;
+        }
+        if (storageId == this.log.getMotorsStorageId()) {
+            return this.motors;
+        }
+        if (storageId == this.log.getAccessoriesStorageId()) {
+            return this.accessories;
+        }
+
+        return null;
+    }
+
+    private boolean sell(DealerRequest request) {
+        var controller = this.factory.getStorageArea().controller;
+
+        var car = this.awaitResult(() -> controller.pollRequestedCar(request.requestedAt));
+        if (car == null) {
+            return false;
+        }
+
+        this.replayedSales.add(car.getBody().getId());
+        request.salesLeft -= 1;
+        if (request.salesLeft > 0) {
+            request.requestedAt = controller.openRequest();
+        }
+
+        return true;
+    }
+
+    private void printSalesOrder() {
+        int compared = Math.min(this.recordedSales.size, this.replayedSales.size);
+        for (int i = 0; i < compared; ++i) {
+            if (this.recordedSales.ids[i] != this.replayedSales.ids[i]) {
+                this.out.printf(
+                        "Sales order diverges at sale %d: recorded body %d, replayed body %d%n",
+                        i,
+                        this.recordedSales.ids[i],
+                        this.replayedSales.ids[i]
+                );
+                return;
+            }
+        }
+
+        if (this.replayedSales.size < this.recordedSales.size) {
+            this.out.printf(
+                    "Sales order matches the recording for %d of %d sales%n",
+                    this.replayedSales.size,
+                    this.recordedSales.size
+            );
+        } else {
+            this.out.printf("Sales order matches the recording (%d sales)%n", this.recordedSales.size);
+        }
+    }
+
+    // The controller sizes production by the demand it measures over time, which a replay without delays does not
+    // reproduce, so a pipeline that is behind the log is asked for one more car until it catches up
+    private boolean awaitPipeline(BooleanSupplier condition) {
+        this.flushDeliveries();
+        if (condition.getAsBoolean()) {
+            return true;
+        }
+
+        var controller = this.factory.getStorageArea().controller;
+        controller.openRequest();
+        try {
+            return this.awaitProgress(condition);
+        } finally {
+            controller.cancelRequest();
+        }
+    }
+
+    private boolean awaitProgress(BooleanSupplier condition) {
+        return this.awaitResult(() -> condition.getAsBoolean() ? Boolean.TRUE : null) != null;
+    }
+
+    // Polls until poll returns non-null and returns that, or returns null once the pipeline has stalled; deliveries
+    // held back by a full storage are retried on every poll, since the pipeline may be waiting for them
+    private <R> R awaitResult(Supplier<R> poll) {
+        long stallAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STALL_MILLIS);
+
+        for (int spins = 0; ; ++spins) {
+            this.flushDeliveries();
+
+            var result = poll.get();
+            if (result != null) {
+                return result;
+            }
+            if (Thread.currentThread().isInterrupted() || System.nanoTime() - stallAt > 0) {
+                return null;
+            }
+
+            if (spins < SPINS_BEFORE_PARKING) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(POLL_NANOS);
+            }
+        }
+    }
+
+    private void flushDeliveries() {
+        this.bodies.flush();
+        this.motors.flush();
+        this.accessories.flush();
+    }
+
+    /*
+     * Deliveries into one storage in log order. A delivery that finds the storage full is held back, as its
+     * supplier was held in put, while the loop goes on with the other storages and the sales; later deliveries
+     * into the same storage queue up behind it.
+     */
+    private static final class PartsFeed<T extends UniqueObject> {
+        private final Storage<T> storage;
+        private final IntFunction<T> partFactory;
+        private final ArrayDeque<T> pendingParts = new ArrayDeque<>();
+
+        // Only deliveries add parts, so everything delivered and no longer stored has been taken
+        private int deliveredCount = 0;
+        private int takenExpected = 0;
+
+        private PartsFeed(
+                Storage<T> storage,
+                IntFunction<T> partFactory) {
+            this.storage = storage;
+            this.partFactory = partFactory;
+        }
+
+        private void deliver(int partId) {
+            this.pendingParts.add(this.partFactory.apply(partId));
+            this.flush();
+        }
+
+        private void flush() {
+            while (!this.pendingParts.isEmpty() && this.storage.offer(this.pendingParts.peek())) {
+                this.pendingParts.poll();
+                this.deliveredCount += 1;
+            }
+        }
+
+        private boolean isFlushed() {
+            return this.pendingParts.isEmpty();
+        }
+
+        private void expectTake() {
+            this.takenExpected += 1;
+        }
+
+        private boolean isTakenAsLogged() {
+            return this.deliveredCount - this.storage.getElementsCount() >= this.takenExpected;
+        }
+    }
+
+    private static final class DealerRequest {
+        private int salesLeft = 0;
+        private long requestedAt;
+    }
+
+    private static final class IntList {
+        private int[] ids = new int[1024];
+        private int size = 0;
+
+        private void add(int id) {
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            this.ids[this.size++] = id;
+        }
+    }
+}
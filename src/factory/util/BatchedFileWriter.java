@@ -0,0 +1,226 @@
+package factory.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * Appends records queued by any number of threads to a file from one writer thread, which commits everything it
+ * drained since its last wake-up with a single write. The queue is bounded without a lock, so appending threads
+ * never wait for the disk: records past the bound, or appended after a write failed, are dropped and counted, and
+ * the first drop is logged.
+ */
+public final class BatchedFileWriter<E> implements Runnable {
+    private static final Logger logger = Logger.getLogger(BatchedFileWriter.class.getSimpleName());
+
+    private static final int BUFFER_CAPACITY = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String name;
+    private final Path path;
+    private final int maxPendingCount;
+    private final boolean isDaemon;
+    private final ConcurrentLinkedQueue<E> pendingRecords = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicBoolean isDropLogged = new AtomicBoolean();
+
+    private Encoder<? super E> encoder;
+    private FileChannel channel;
+
+    private volatile Thread writer;
+    private volatile boolean isWriterIdle = false;
+    private volatile boolean isStopping = false;
+
+    // Set once the file could not be opened or written; records are dropped from then on until the next start
+    private volatile boolean hasFailed = false;
+
+    public BatchedFileWriter(
+            String name,
+            Path path,
+            int maxPendingCount,
+            boolean isDaemon) {
+        this.name = name;
+        this.path = path;
+        this.maxPendingCount = maxPendingCount;
+        this.isDaemon = isDaemon;
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    public long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+    // Returns false if the record was dropped
+    public boolean append(E record) {
+        if (this.hasFailed) {
+            this.drop(1);
+            return false;
+        }
+        if (this.pendingCount.getAndIncrement() >= this.maxPendingCount) {
+            this.pendingCount.decrementAndGet();
+            this.drop(1);
+            return false;
+        }
+
+        this.pendingRecords.add(record);
+
+        if (this.isWriterIdle) {
+            var writer = this.writer;
+            if (writer != null) {
+                LockSupport.unpark(writer);
+            }
+        }
+        return true;
+    }
+
+    // Truncates the file and writes the header before the writer starts, so that a file that cannot be written
+    // fails here; records appended after such a failure are dropped
+    public synchronized void start(Encoder<? super E> encoder)
+            throws IOException {
+        if (this.writer != null) {
+            return;
+        }
+
+        this.hasFailed = false;
+        try {
+            this.channel = FileChannel.open(
+                    this.path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING
+            );
+        } catch (IOException e) {
+            this.hasFailed = true;
+            throw e;
+        }
+
+        var header = ByteBuffer.allocate(BUFFER_CAPACITY);
+        encoder.encodeHeader(header);
+        try {
+            flush(this.channel, header);
+        } catch (IOException e) {
+            this.hasFailed = true;
+            this.channel.close();
+            throw e;
+        }
+
+        this.encoder = encoder;
+        this.writer = new Thread(this, this.name);
+        this.writer.setDaemon(this.isDaemon);
+        this.writer.start();
+    }
+
+    // Writes out every record appended so far and closes the file
+    public synchronized void stop() {
+        var writer = this.writer;
+        if (writer == null) {
+            return;
+        }
+
+        this.isStopping = true;
+        LockSupport.unpark(writer);
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        this.writer = null;
+        this.isStopping = false;
+    }
+
+    private void drop(int recordsCount) {
+        this.droppedCount.addAndGet(recordsCount);
+
+        if (this.isDropLogged.compareAndSet(false, true)) {
+            logger.log(
+                    Level.WARNING,
+                    "{0} is dropping records that cannot be written to {1}",
+                    new Object[] { this.name, this.path }
+            );
+        }
+    }
+
+    @Override
+    public void run() {
+        try (var channel = this.channel) {
+            var buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+
+            while (true) {
+                var record = this.pendingRecords.poll();
+
+                if (record == null) {
+                    flush(channel, buffer);
+
+                    if (this.isStopping) {
+                        break;
+                    }
+
+                    this.isWriterIdle = true;
+                    if (this.pendingRecords.isEmpty() && !this.isStopping) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    this.isWriterIdle = false;
+                    continue;
+                }
+                this.pendingCount.decrementAndGet();
+
+                if (buffer.remaining() < this.encoder.getMaxRecordBytes()) {
+                    flush(channel, buffer);
+                }
+                this.encoder.encode(buffer, record);
+            }
+
+            channel.force(false);
+        } catch (IOException e) {
+            logger.log(
+                    Level.SEVERE,
+                    "{0} failed to write {1}: {2}",
+                    new Object[] { this.name, this.path, e.getMessage() }
+            );
+
+            // Set before draining, so that no record is queued for a writer that is gone
+            this.hasFailed = true;
+            int drainedCount = 0;
+            while (this.pendingRecords.poll() != null) {
+                drainedCount += 1;
+            }
+            this.pendingCount.addAndGet(-drainedCount);
+            this.drop(drainedCount);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public interface Encoder<E> {
+
+        int getMaxRecordBytes();
+
+        void encodeHeader(ByteBuffer buffer);
+
+        void encode(ByteBuffer buffer, E record);
+    }
+}
@@ -0,0 +1,53 @@
+package factory.util;
+
+import java.nio.ByteBuffer;
+
+/*
+ * File layout: an 8-byte header (magic, version) followed by fixed-width big-endian records of
+ * timestamp millis (long), dealer id, car id, body id, motor id and accessory id (ints).
+ */
+public final class BinarySalesFormat implements SalesRecordEncoder {
+    public static final int MAGIC = 0x53414c45; // "SALE"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 2 * Integer.BYTES;
+    public static final int RECORD_BYTES = Long.BYTES + 5 * Integer.BYTES;
+
+    @Override
+    public int getMaxRecordBytes() {
+        return RECORD_BYTES;
+    }
+
+    @Override
+    public void encodeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+    }
+
+    @Override
+    public void encode(
+            ByteBuffer buffer,
+            long timestampMillis,
+            int dealerId,
+            int carId,
+            int bodyId,
+            int motorId,
+            int accessoryId) {
+        buffer.putLong(timestampMillis);
+        buffer.putInt(dealerId);
+        buffer.putInt(carId);
+        buffer.putInt(bodyId);
+        buffer.putInt(motorId);
+        buffer.putInt(accessoryId);
+    }
+
+    public static void decode(ByteBuffer buffer, int offset, SalesRecordVisitor visitor) {
+        visitor.visit(
+                buffer.getLong(offset),
+                buffer.getInt(offset + Long.BYTES),
+                buffer.getInt(offset + Long.BYTES + Integer.BYTES),
+                buffer.getInt(offset + Long.BYTES + 2 * Integer.BYTES),
+                buffer.getInt(offset + Long.BYTES + 3 * Integer.BYTES),
+                buffer.getInt(offset + Long.BYTES + 4 * Integer.BYTES)
+        );
+    }
+}
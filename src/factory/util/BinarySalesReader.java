@@ -0,0 +1,82 @@
+package factory.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class BinarySalesReader implements Closeable {
+    // A single mapping is limited to 2 GiB, so big files are scanned through record-aligned windows
+    private static final long MAX_WINDOW_BYTES =
+            Integer.MAX_VALUE / BinarySalesFormat.RECORD_BYTES * (long) BinarySalesFormat.RECORD_BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long recordsCount;
+
+    public BinarySalesReader(Path path)
+            throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            long size = this.channel.size();
+            if (size < BinarySalesFormat.HEADER_BYTES) {
+                throw new IOException(String.format("\"%s\" is not a binary sales log: too short", path));
+            }
+
+            var header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, BinarySalesFormat.HEADER_BYTES);
+            if (header.getInt(0) != BinarySalesFormat.MAGIC) {
+                throw new IOException(String.format("\"%s\" is not a binary sales log: bad magic", path));
+            }
+            if (header.getInt(Integer.BYTES) != BinarySalesFormat.VERSION) {
+                throw new IOException(String.format(
+                        "\"%s\" has unsupported version %d",
+                        path,
+                        header.getInt(Integer.BYTES)
+                ));
+            }
+
+            // A trailing partial record is left over from an interrupted write and is ignored
+            this.recordsCount = (size - BinarySalesFormat.HEADER_BYTES) / BinarySalesFormat.RECORD_BYTES;
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    public long getRecordsCount() {
+        return this.recordsCount;
+    }
+
+    public void forEach(SalesRecordVisitor visitor)
+            throws IOException {
+        long recordsBytes = this.recordsCount * BinarySalesFormat.RECORD_BYTES;
+
+        for (long windowStart = 0; windowStart < recordsBytes; windowStart += MAX_WINDOW_BYTES) {
+            long windowBytes = Math.min(MAX_WINDOW_BYTES, recordsBytes - windowStart);
+            ByteBuffer window = this.channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    BinarySalesFormat.HEADER_BYTES + windowStart,
+                    windowBytes
+            );
+
+            for (int offset = 0; offset < windowBytes; offset += BinarySalesFormat.RECORD_BYTES) {
+                BinarySalesFormat.decode(window, offset, visitor);
+            }
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException {
+        this.channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BinarySalesReader(%s, %d records)", this.path, this.recordsCount);
+    }
+}
@@ -5,4 +5,12 @@ public interface Periodic extends Runnable {
     int getDelayMillis();
 
     void setDelayMillis(int newDelayMillis);
+
+    // One period of work that never blocks; returns false if a full or empty storage stopped it, keeping the work
+    // for a retry
+    boolean tryRunOnce();
+
+    // Drops the work tryRunOnce kept for a retry once the entity is taken off its scheduler for good
+    default void abandon() {
+    }
 }
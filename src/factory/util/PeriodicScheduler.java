@@ -0,0 +1,232 @@
+package factory.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * Drives any number of Periodic instances from one timer thread and a caller-provided executor.
+ * Due entries are found on a hashed timer wheel and run through tryRunOnce, so no thread ever sleeps
+ * on behalf of a single entity. An entity blocked by a full or empty storage keeps its unfinished work
+ * and is retried with a short, growing backoff instead of holding a thread.
+ */
+public final class PeriodicScheduler implements Runnable {
+    private static final Logger logger = Logger.getLogger(PeriodicScheduler.class.getSimpleName());
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int WHEEL_SIZE = 1024;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int MAX_RETRY_SHIFT = 6;
+
+    private final Executor executor;
+    private final ConcurrentLinkedQueue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<Periodic, Entry> entries = new ConcurrentHashMap<>();
+
+    // Owned by the timer thread
+    private final ArrayList<ArrayDeque<Timeout>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private long startNanos;
+    private long currentTick = 0;
+
+    private volatile boolean isRunning = false;
+    private Thread timerThread;
+
+    public PeriodicScheduler(Executor executor) {
+        this.executor = executor;
+
+        for (int i = 0; i < WHEEL_SIZE; ++i) {
+            this.wheel.add(new ArrayDeque<>());
+        }
+    }
+
+    // The first period starts right away, like a thread running the entity would
+    public void schedule(Periodic periodic) {
+        var entry = new Entry(periodic);
+        this.entries.put(periodic, entry);
+        this.newTimeouts.add(new Timeout(entry, System.nanoTime()));
+    }
+
+    // The entry leaves the wheel the next time it comes due, abandoning whatever it kept for a retry
+    public void cancel(Periodic periodic) {
+        var entry = this.entries.remove(periodic);
+        if (entry != null) {
+            entry.isCancelled = true;
+        }
+    }
+
+    public synchronized void start() {
+        if (this.isRunning) {
+            return;
+        }
+
+        this.isRunning = true;
+        this.timerThread = new Thread(this, PeriodicScheduler.class.getSimpleName());
+        this.timerThread.start();
+    }
+
+    public synchronized void shutdown() {
+        if (!this.isRunning) {
+            return;
+        }
+
+        this.isRunning = false;
+        this.timerThread.interrupt();
+
+        try {
+            this.timerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        this.startNanos = System.nanoTime();
+
+        while (this.isRunning) {
+            long tickDeadline = this.startNanos + (this.currentTick + 1) * TICK_NANOS;
+            long sleepNanos = tickDeadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (Thread.interrupted() || System.nanoTime() < tickDeadline) {
+                    continue;
+                }
+            }
+
+            this.transferNewTimeouts();
+            this.expire(this.wheel.get((int) (this.currentTick & WHEEL_MASK)));
+            this.currentTick += 1;
+        }
+    }
+
+    private void transferNewTimeouts() {
+        Timeout timeout;
+        while ((timeout = this.newTimeouts.poll()) != null) {
+            long deadlineTick = Math.max(
+                    this.currentTick,
+                    (timeout.deadlineNanos - this.startNanos + TICK_NANOS - 1) / TICK_NANOS
+            );
+
+            timeout.remainingRounds = (deadlineTick - this.currentTick) / WHEEL_SIZE;
+            this.wheel.get((int) (deadlineTick & WHEEL_MASK)).add(timeout);
+        }
+    }
+
+    private void expire(ArrayDeque<Timeout> bucket) {
+        for (int i = bucket.size(); i > 0; --i) {
+            var timeout = bucket.poll();
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds -= 1;
+                bucket.add(timeout);
+                continue;
+            }
+
+            this.submit(timeout.entry);
+        }
+    }
+
+    private void submit(Entry entry) {
+        try {
+            this.executor.execute(entry);
+        } catch (IllegalStateException e) {
+            logger.log(Level.INFO, "{0} stopped: {1}", new Object[] { this, e.getMessage() });
+            this.isRunning = false;
+        }
+    }
+
+    private final class Entry implements Runnable {
+        private final Periodic periodic;
+        private int retriesCount = 0;
+        private volatile boolean isCancelled = false;
+
+        private Entry(Periodic periodic) {
+            this.periodic = periodic;
+        }
+
+        @Override
+        public void run() {
+            if (!PeriodicScheduler.this.isRunning) {
+                return;
+            }
+
+            if (this.isCancelled) {
+                this.periodic.abandon();
+                return;
+            }
+
+            boolean isDone;
+            try {
+                isDone = this.periodic.tryRunOnce();
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "{0} failed: {1}", new Object[] { this.periodic, e });
+                isDone = true;
+            }
+
+            if (!isDone) {
+                this.retriesCount += 1;
+                long retryTicks = 1L << Math.min(this.retriesCount - 1, MAX_RETRY_SHIFT);
+                PeriodicScheduler.this.newTimeouts.add(new Timeout(this, System.nanoTime() + retryTicks * TICK_NANOS));
+                return;
+            }
+
+            this.retriesCount = 0;
+
+            // Read on every period, so delay changes apply from the next period on
+            int delayMillis = this.periodic.getDelayMillis();
+            if (delayMillis == 0) {
+                PeriodicScheduler.this.submit(this);
+            } else {
+                long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+                PeriodicScheduler.this.newTimeouts.add(new Timeout(this, deadlineNanos));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return this.periodic.toString();
+        }
+    }
+
+    private static final class Timeout {
+        private final Entry entry;
+        private final long deadlineNanos;
+        private long remainingRounds;
+
+        private Timeout(Entry entry, long deadlineNanos) {
+            this.entry = entry;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    public enum Mode {
+        THREADS("Threads"),
+        TIMER_WHEEL("TimerWheel");
+
+        private final String configName;
+
+        Mode(String configName) {
+            this.configName = configName;
+        }
+
+        public static Mode fromConfigName(String configName)
+                throws IllegalArgumentException {
+            for (var mode : Mode.values()) {
+                if (mode.configName.equals(configName)) {
+                    return mode;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("Unknown periodic scheduling \"%s\"", configName));
+        }
+
+        @Override
+        public String toString() {
+            return this.configName;
+        }
+    }
+}
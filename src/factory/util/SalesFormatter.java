@@ -1,14 +1,53 @@
 package factory.util;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import factory.factory.car.Car;
+import factory.factory.dealer.Dealer;
+
 import java.util.logging.Formatter;
 import java.util.logging.LogRecord;
 
+// Every thread formats into its own buffer, so one formatter can serve concurrent handlers
 public class SalesFormatter extends Formatter {
-    private final static SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
     @Override
     public String format(LogRecord record) {
-        return String.format("[%s] %s\n", dateFormat.format(new Date(record.getMillis())), this.formatMessage(record));
+        var state = this.state.get();
+        var builder = state.builder;
+        builder.setLength(0);
+
+        state.appendTimestamp(record.getMillis());
+
+        var parameters = record.getParameters();
+        if (parameters != null
+                && parameters.length == 2
+                && parameters[0] instanceof Dealer dealer
+                && parameters[1] instanceof Car car) {
+            appendSale(builder, dealer, car);
+        } else {
+            builder.append(this.formatMessage(record));
+        }
+
+        return builder.append('\n').toString();
+    }
+
+    // Matches "Dealer 1: Auto 0 (Body:0, Motor:0, Accessory:0)", the "{0}: {1}" message of a sale
+    private static void appendSale(StringBuilder builder, Dealer dealer, Car car) {
+        builder.append("Dealer ").append(dealer.getId())
+                .append(": Auto ").append(car.getId())
+                .append(" (Body:").append(car.getBody().getId())
+                .append(", Motor:").append(car.getMotor().getId())
+                .append(", Accessory:").append(car.getAccessory().getId())
+                .append(')');
+    }
+
+    private static final class State {
+        private final StringBuilder builder = new StringBuilder(128);
+        private final SalesTimestamp timestamp = new SalesTimestamp();
+
+        private void appendTimestamp(long millis) {
+            this.timestamp.appendTo(this.builder, millis);
+            this.builder.append("] ");
+        }
     }
 }
@@ -0,0 +1,131 @@
+package factory.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Text timestamps have second resolution, so converting a binary log to text and back drops the milliseconds
+public final class SalesLogConverter {
+    private static final int BUFFER_CAPACITY = 64 * 1024;
+
+    private SalesLogConverter() {
+    }
+
+    public static void main(String[] args)
+            throws IOException {
+        if (args.length != 3 || !(args[0].equals("--to-text") || args[0].equals("--to-binary"))) {
+            System.err.println("Usage: SalesLogConverter --to-text|--to-binary <source> <destination>");
+            System.exit(2);
+        }
+
+        var source = Path.of(args[1]);
+        var destination = Path.of(args[2]);
+        long converted = args[0].equals("--to-text")
+                ? toText(source, destination)
+                : toBinary(source, destination);
+
+        System.out.printf("Converted %d records from %s to %s%n", converted, source, destination);
+    }
+
+    public static long toText(Path binary, Path text)
+            throws IOException {
+        try (var reader = new BinarySalesReader(binary)) {
+            try (var writer = new RecordWriter(text, new TextSalesFormat())) {
+                reader.forEach(writer);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            return reader.getRecordsCount();
+        }
+    }
+
+    public static long toBinary(Path text, Path binary)
+            throws IOException {
+        long converted = 0;
+
+        try (var lines = Files.newBufferedReader(text, StandardCharsets.US_ASCII);
+             var writer = new RecordWriter(binary, new BinarySalesFormat())) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    TextSalesFormat.decode(line, writer);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(String.format("Failed to convert \"%s\": %s", text, e.getMessage()));
+                }
+                ++converted;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return converted;
+    }
+
+    private static final class RecordWriter implements SalesRecordVisitor, AutoCloseable {
+        private final FileChannel channel;
+        private final SalesRecordEncoder encoder;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+
+        private RecordWriter(
+                Path path,
+                SalesRecordEncoder encoder)
+                throws IOException {
+            this.channel = FileChannel.open(
+                    path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING
+            );
+            this.encoder = encoder;
+            this.encoder.encodeHeader(this.buffer);
+        }
+
+        @Override
+        public void visit(
+                long timestampMillis,
+                int dealerId,
+                int carId,
+                int bodyId,
+                int motorId,
+                int accessoryId) {
+            try {
+                if (this.buffer.remaining() < this.encoder.getMaxRecordBytes()) {
+                    this.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            this.encoder.encode(this.buffer, timestampMillis, dealerId, carId, bodyId, motorId, accessoryId);
+        }
+
+        private void flush()
+                throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        @Override
+        public void close()
+                throws IOException {
+            try {
+                this.flush();
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package factory.util;
+
+import java.nio.ByteBuffer;
+
+public interface SalesRecordEncoder {
+
+    int getMaxRecordBytes();
+
+    void encodeHeader(ByteBuffer buffer);
+
+    void encode(
+            ByteBuffer buffer,
+            long timestampMillis,
+            int dealerId,
+            int carId,
+            int bodyId,
+            int motorId,
+            int accessoryId);
+
+    enum Format {
+        TEXT("Text"),
+        BINARY("Binary");
+
+        private final String configName;
+
+        Format(String configName) {
+            this.configName = configName;
+        }
+
+        public SalesRecordEncoder createEncoder() {
+            return switch (this) {
+                case TEXT -> new TextSalesFormat();
+                case BINARY -> new BinarySalesFormat();
+            };
+        }
+
+        public static Format fromConfigName(String configName)
+                throws IllegalArgumentException {
+            for (var format : Format.values()) {
+                if (format.configName.equals(configName)) {
+                    return format;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("Unknown sales record format \"%s\"", configName));
+        }
+
+        @Override
+        public String toString() {
+            return this.configName;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package factory.util;
+
+public interface SalesRecordVisitor {
+
+    void visit(
+            long timestampMillis,
+            int dealerId,
+            int carId,
+            int bodyId,
+            int motorId,
+            int accessoryId);
+}
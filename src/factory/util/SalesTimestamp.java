@@ -0,0 +1,56 @@
+package factory.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// The "[yyyy-MM-dd HH:mm:ss" head of a text sales record, formatted again only when the second changes
+final class SalesTimestamp {
+    private static final int LENGTH = 20;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final byte[] ascii = new byte[LENGTH];
+    private long second = Long.MIN_VALUE;
+
+    // The returned array is reused by the next call
+    byte[] format(long millis) {
+        long second = Math.floorDiv(millis, 1000);
+        if (second != this.second) {
+            this.formatSecond(second);
+        }
+
+        return this.ascii;
+    }
+
+    void appendTo(StringBuilder builder, long millis) {
+        for (var character : this.format(millis)) {
+            builder.append((char) character);
+        }
+    }
+
+    private void formatSecond(long second) {
+        var time = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), this.zone);
+
+        this.ascii[0] = '[';
+        putDigits(this.ascii, 1, time.getYear(), 4);
+        this.ascii[5] = '-';
+        putDigits(this.ascii, 6, time.getMonthValue(), 2);
+        this.ascii[8] = '-';
+        putDigits(this.ascii, 9, time.getDayOfMonth(), 2);
+        this.ascii[11] = ' ';
+        putDigits(this.ascii, 12, time.getHour(), 2);
+        this.ascii[14] = ':';
+        putDigits(this.ascii, 15, time.getMinute(), 2);
+        this.ascii[17] = ':';
+        putDigits(this.ascii, 18, time.getSecond(), 2);
+
+        this.second = second;
+    }
+
+    private static void putDigits(byte[] destination, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; --i) {
+            destination[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
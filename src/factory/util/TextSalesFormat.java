@@ -0,0 +1,119 @@
+package factory.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+// Produces the same lines as SalesFormatter: "[yyyy-MM-dd HH:mm:ss] Dealer 1: Auto 0 (Body:0, Motor:0, Accessory:0)"
+public final class TextSalesFormat implements SalesRecordEncoder {
+    private static final int MAX_RECORD_BYTES = 160;
+
+    private static final String DEALER = "] Dealer ";
+    private static final String AUTO = ": Auto ";
+    private static final String BODY = " (Body:";
+    private static final String MOTOR = ", Motor:";
+    private static final String ACCESSORY = ", Accessory:";
+    private static final String END = ")";
+
+    private static final byte[] DEALER_BYTES = ascii(DEALER);
+    private static final byte[] AUTO_BYTES = ascii(AUTO);
+    private static final byte[] BODY_BYTES = ascii(BODY);
+    private static final byte[] MOTOR_BYTES = ascii(MOTOR);
+    private static final byte[] ACCESSORY_BYTES = ascii(ACCESSORY);
+    private static final byte[] END_BYTES = ascii(END + "\n");
+
+    private static final DateTimeFormatter timestampFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final SalesTimestamp timestamp = new SalesTimestamp();
+
+    @Override
+    public int getMaxRecordBytes() {
+        return MAX_RECORD_BYTES;
+    }
+
+    @Override
+    public void encodeHeader(ByteBuffer buffer) {
+    }
+
+    @Override
+    public void encode(
+            ByteBuffer buffer,
+            long timestampMillis,
+            int dealerId,
+            int carId,
+            int bodyId,
+            int motorId,
+            int accessoryId) {
+        buffer.put(this.timestamp.format(timestampMillis));
+        buffer.put(DEALER_BYTES);
+        putInt(buffer, dealerId);
+        buffer.put(AUTO_BYTES);
+        putInt(buffer, carId);
+        buffer.put(BODY_BYTES);
+        putInt(buffer, bodyId);
+        buffer.put(MOTOR_BYTES);
+        putInt(buffer, motorId);
+        buffer.put(ACCESSORY_BYTES);
+        putInt(buffer, accessoryId);
+        buffer.put(END_BYTES);
+    }
+
+    public static void decode(String line, SalesRecordVisitor visitor)
+            throws IllegalArgumentException {
+        if (!line.startsWith("[")) {
+            throw new IllegalArgumentException(String.format("Not a sales record: \"%s\"", line));
+        }
+
+        int dealerAt = line.indexOf(DEALER);
+        int autoAt = line.indexOf(AUTO, dealerAt);
+        int bodyAt = line.indexOf(BODY, autoAt);
+        int motorAt = line.indexOf(MOTOR, bodyAt);
+        int accessoryAt = line.indexOf(ACCESSORY, motorAt);
+        int endAt = line.indexOf(END, accessoryAt);
+        if (dealerAt < 0 || autoAt < 0 || bodyAt < 0 || motorAt < 0 || accessoryAt < 0 || endAt < 0) {
+            throw new IllegalArgumentException(String.format("Not a sales record: \"%s\"", line));
+        }
+
+        final long timestampMillis;
+        try {
+            timestampMillis = LocalDateTime.parse(line.substring(1, dealerAt), timestampFormat)
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant()
+                    .toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format("Bad timestamp in \"%s\"", line));
+        }
+
+        visitor.visit(
+                timestampMillis,
+                Integer.parseInt(line, dealerAt + DEALER.length(), autoAt, 10),
+                Integer.parseInt(line, autoAt + AUTO.length(), bodyAt, 10),
+                Integer.parseInt(line, bodyAt + BODY.length(), motorAt, 10),
+                Integer.parseInt(line, motorAt + MOTOR.length(), accessoryAt, 10),
+                Integer.parseInt(line, accessoryAt + ACCESSORY.length(), endAt, 10)
+        );
+    }
+
+    private static void putInt(ByteBuffer buffer, int value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,67 @@
+package factory.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public enum ThreadMode implements ThreadFactory {
+    PLATFORM("Platform"),
+    VIRTUAL("Virtual");
+
+    private final String configName;
+
+    ThreadMode(String configName) {
+        this.configName = configName;
+    }
+
+    public boolean isSupported() {
+        return this == PLATFORM || VirtualThreads.factory != null;
+    }
+
+    @Override
+    public Thread newThread(Runnable task) {
+        if (this == VIRTUAL && VirtualThreads.factory != null) {
+            return VirtualThreads.factory.newThread(task);
+        }
+
+        return new Thread(task);
+    }
+
+    public static ThreadMode fromConfigName(String configName)
+            throws IllegalArgumentException {
+        for (var mode : ThreadMode.values()) {
+            if (mode.configName.equals(configName)) {
+                return mode;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unknown thread mode \"%s\"", configName));
+    }
+
+    @Override
+    public String toString() {
+        return this.configName;
+    }
+
+    private static final class VirtualThreads {
+        private static final Logger logger = Logger.getLogger(ThreadMode.class.getSimpleName());
+
+        // Looked up reflectively so that the project still builds and runs on runtimes without virtual threads
+        private static final ThreadFactory factory = lookupFactory();
+
+        private static ThreadFactory lookupFactory() {
+            try {
+                var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                var factory = Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+                return (ThreadFactory) factory;
+            } catch (ReflectiveOperationException e) {
+                logger.log(
+                        Level.WARNING,
+                        "Virtual threads are not supported by this runtime ({0}), using platform threads",
+                        Runtime.version()
+                );
+                return null;
+            }
+        }
+    }
+}
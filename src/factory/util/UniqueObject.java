@@ -1,23 +1,50 @@
 package factory.util;
 
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class UniqueObject {
-    private static final HashMap<Class<? extends UniqueObject>, Integer> objectsCount = new HashMap<>();
+    private static final ConcurrentHashMap<Class<?>, AtomicInteger> objectsCount = new ConcurrentHashMap<>();
+
+    private static final ClassValue<AtomicInteger> idSequences = new ClassValue<>() {
+        @Override
+        protected AtomicInteger computeValue(Class<?> type) {
+            return UniqueObject.objectsCount.computeIfAbsent(type, ignored -> new AtomicInteger());
+        }
+    };
 
     private final int id;
 
     protected UniqueObject() {
-        synchronized (UniqueObject.objectsCount) {
-            if (!UniqueObject.objectsCount.containsKey(this.getClass())) {
-                UniqueObject.objectsCount.put(this.getClass(), 0);
-            }
-
-            var currentCount = UniqueObject.objectsCount.get(this.getClass());
-            UniqueObject.objectsCount.put(this.getClass(), currentCount + 1);
+        this.id = UniqueObject.idSequences.get(this.getClass()).getAndIncrement();
+    }
 
-            this.id = currentCount;
+    // Recreates a saved object; the class counter is moved past the id so it is never handed out again
+    protected UniqueObject(int id) {
+        // Packed storages recreate objects on every take, so the common case of an id already behind the counter
+        // is kept to a plain read
+        var sequence = UniqueObject.idSequences.get(this.getClass());
+        if (sequence.get() <= id) {
+            sequence.accumulateAndGet(id + 1, Math::max);
         }
+        this.id = id;
+    }
+
+    // Next id of every class that has created objects so far, by class name
+    public static Map<String, Integer> getNextIds() {
+        var nextIds = new HashMap<String, Integer>(UniqueObject.objectsCount.size());
+        UniqueObject.objectsCount.forEach((type, sequence) -> nextIds.put(type.getName(), sequence.get()));
+
+        return nextIds;
+    }
+
+    // Counters only move forward, so objects created before the call keep unique ids
+    public static void advanceNextId(String className, int nextId)
+            throws ClassNotFoundException {
+        var type = Class.forName(className, false, UniqueObject.class.getClassLoader());
+        UniqueObject.idSequences.get(type).accumulateAndGet(nextId, Math::max);
     }
 
     public final int getId() {
@@ -0,0 +1,75 @@
+package factory.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+public final class WaitQueue {
+    private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitersCount = new AtomicInteger();
+
+    public int getWaitersCount() {
+        return this.waitersCount.get();
+    }
+
+    public <R> R await(Supplier<R> attempt)
+            throws InterruptedException {
+        var current = Thread.currentThread();
+
+        while (true) {
+            var result = attempt.get();
+            if (result != null) {
+                return result;
+            }
+
+            this.waitersCount.incrementAndGet();
+            this.waiters.add(current);
+
+            boolean retry = false;
+            try {
+                result = attempt.get();
+                if (result != null) {
+                    return result;
+                }
+
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                retry = true;
+            } finally {
+                if (this.waiters.remove(current)) {
+                    this.waitersCount.decrementAndGet();
+                } else if (!retry) {
+                    // The consumed signal could have been meant for the next waiter, so it is passed on
+                    this.signal();
+                }
+            }
+        }
+    }
+
+    public void signal() {
+        if (this.waitersCount.get() == 0) {
+            return;
+        }
+
+        var waiter = this.waiters.poll();
+        if (waiter != null) {
+            this.waitersCount.decrementAndGet();
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    public void signalAll() {
+        while (this.waitersCount.get() > 0) {
+            var waiter = this.waiters.poll();
+            if (waiter == null) {
+                return;
+            }
+
+            this.waitersCount.decrementAndGet();
+            LockSupport.unpark(waiter);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package factory.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Spans a car assembly task from the moment a worker starts it until the car is in the cars storage
+@Name("factory.CarAssembled")
+@Label("Car Assembled")
+@Description("A car assembly task built a car and put it into the cars storage")
+@Category({ "Factory", "Cars" })
+@StackTrace(false)
+public final class CarAssembledEvent extends Event {
+    @Label("Task Id")
+    public int taskId;
+
+    @Label("Car Id")
+    public int carId;
+
+    @Label("Storage Id")
+    public int storageId;
+}
@@ -0,0 +1,30 @@
+package factory.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("factory.CarSold")
+@Label("Car Sold")
+@Description("A dealer received a car from the car storage controller")
+@Category({ "Factory", "Cars" })
+@StackTrace(false)
+public final class CarSoldEvent extends Event {
+    @Label("Dealer Id")
+    int dealerId;
+
+    @Label("Car Id")
+    int carId;
+
+    public static void commit(int dealerId, int carId) {
+        var event = new CarSoldEvent();
+        if (event.shouldCommit()) {
+            event.dealerId = dealerId;
+            event.carId = carId;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package factory.util.jfr;
+
+import factory.util.UniqueObject;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("factory.PartConsumed")
+@Label("Part Consumed")
+@Description("A car assembly task used a part taken from a storage")
+@Category({ "Factory", "Parts" })
+@StackTrace(false)
+public final class PartConsumedEvent extends Event {
+    @Label("Task Id")
+    int taskId;
+
+    @Label("Storage Id")
+    int storageId;
+
+    @Label("Part Type")
+    String partType;
+
+    @Label("Part Id")
+    int partId;
+
+    public static void commit(int taskId, int storageId, UniqueObject part) {
+        var event = new PartConsumedEvent();
+        if (event.shouldCommit()) {
+            event.taskId = taskId;
+            event.storageId = storageId;
+            event.partType = part.getClass().getSimpleName();
+            event.partId = part.getId();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package factory.util.jfr;
+
+import factory.util.UniqueObject;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("factory.PartDelivered")
+@Label("Part Delivered")
+@Description("A supplier put a part into a storage")
+@Category({ "Factory", "Parts" })
+@StackTrace(false)
+public final class PartDeliveredEvent extends Event {
+    @Label("Supplier Id")
+    int supplierId;
+
+    @Label("Storage Id")
+    int storageId;
+
+    @Label("Part Type")
+    String partType;
+
+    @Label("Part Id")
+    int partId;
+
+    public static void commit(int supplierId, int storageId, UniqueObject part) {
+        var event = new PartDeliveredEvent();
+        if (event.shouldCommit()) {
+            event.supplierId = supplierId;
+            event.storageId = storageId;
+            event.partType = part.getClass().getSimpleName();
+            event.partId = part.getId();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package factory.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// Covers every blocking put or take; the threshold keeps the uncontended ones out of recordings
+@Name("factory.StorageStall")
+@Label("Storage Stall")
+@Description("A thread blocked on a full storage (put) or an empty one (take)")
+@Category({ "Factory", "Storages" })
+@Threshold("1 ms")
+public final class StorageStallEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(StorageStallEvent.class);
+
+    @Label("Storage Id")
+    public int storageId;
+
+    @Label("Full")
+    @Description("True when a producer waited for space, false when a consumer waited for an element")
+    public boolean isFull;
+
+    // Read before allocating, so that puts and takes allocate nothing while no recording has the event enabled
+    public static boolean isTypeEnabled() {
+        return TYPE.isEnabled();
+    }
+}
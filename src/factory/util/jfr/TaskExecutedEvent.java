@@ -0,0 +1,27 @@
+package factory.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Starts when a worker picks the task up and ends when the task returns
+@Name("factory.TaskExecuted")
+@Label("Task Executed")
+@Description("A worker ran a task taken from the workers pool")
+@Category({ "Factory", "Workers" })
+@StackTrace(false)
+public final class TaskExecutedEvent extends Event {
+    @Label("Worker Id")
+    public int workerId;
+
+    @Label("Task")
+    public String task;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueWaitNanos;
+}
@@ -0,0 +1,30 @@
+package factory.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("factory.TaskQueued")
+@Label("Task Queued")
+@Description("A task was submitted to the workers pool")
+@Category({ "Factory", "Workers" })
+@StackTrace(false)
+public final class TaskQueuedEvent extends Event {
+    @Label("Task")
+    String task;
+
+    @Label("Queued Tasks")
+    int queuedTasksCount;
+
+    public static void commit(Runnable task, int queuedTasksCount) {
+        var event = new TaskQueuedEvent();
+        if (event.shouldCommit()) {
+            event.task = task.toString();
+            event.queuedTasksCount = queuedTasksCount;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package factory.util.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Events per second over the last few completed seconds, kept in a ring of one-second slots
+public final class RateMeter {
+    private static final int WINDOW_SECONDS = 5;
+    private static final int SLOTS = WINDOW_SECONDS + 2;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray slotSeconds = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray slotCounts = new AtomicLongArray(SLOTS);
+
+    public void mark() {
+        this.mark(1);
+    }
+
+    public void mark(long count) {
+        long second = this.currentSecond();
+        int slot = (int) (second % SLOTS);
+
+        long slotSecond = this.slotSeconds.get(slot);
+        if (slotSecond != second && this.slotSeconds.compareAndSet(slot, slotSecond, second)) {
+            // Marks racing with the reset may land in the previous second's count; the rate is an estimate anyway
+            this.slotCounts.set(slot, 0);
+        }
+
+        this.slotCounts.addAndGet(slot, count);
+    }
+
+    public double getRatePerSecond() {
+        long second = this.currentSecond();
+        long windowSeconds = Math.min(WINDOW_SECONDS, second);
+        if (windowSeconds == 0) {
+            return 0;
+        }
+
+        long count = 0;
+        for (int slot = 0; slot < SLOTS; ++slot) {
+            long slotSecond = this.slotSeconds.get(slot);
+            if (slotSecond < second && slotSecond >= second - windowSeconds) {
+                count += this.slotCounts.get(slot);
+            }
+        }
+
+        return (double) count / windowSeconds;
+    }
+
+    private long currentSecond() {
+        return (System.nanoTime() - this.startNanos) / NANOS_PER_SECOND;
+    }
+}
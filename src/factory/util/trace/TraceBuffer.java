@@ -0,0 +1,72 @@
+package factory.util.trace;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Single-writer ring of fixed-size events; the owner thread never waits for the dumping thread
+final class TraceBuffer {
+    private static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+    private static final int SLOT_LONGS = 4;
+
+    private final Thread owner;
+    private final long[] slots = new long[CAPACITY * SLOT_LONGS];
+    private final AtomicLong written = new AtomicLong();
+
+    // Touched by the dumping thread only
+    private long drained = 0;
+
+    TraceBuffer(Thread owner) {
+        this.owner = owner;
+    }
+
+    boolean isOwnerAlive() {
+        return this.owner.isAlive();
+    }
+
+    void record(TraceEvent event, int first, int second, int third) {
+        long sequence = this.written.getPlain();
+        int slot = (int) (sequence & MASK) * SLOT_LONGS;
+
+        this.slots[slot] = System.nanoTime();
+        this.slots[slot + 1] = event.ordinal();
+        this.slots[slot + 2] = (long) first << 32 | (second & 0xFFFFFFFFL);
+        this.slots[slot + 3] = third;
+
+        this.written.lazySet(sequence + 1);
+    }
+
+    // Returns the number of events that were overwritten before they could be drained
+    long drainTo(List<TraceRecord> records) {
+        long end = this.written.get();
+        long start = Math.max(this.drained, end - CAPACITY);
+        long lost = start - this.drained;
+
+        int firstCopied = records.size();
+        for (long sequence = start; sequence < end; ++sequence) {
+            int slot = (int) (sequence & MASK) * SLOT_LONGS;
+            records.add(new TraceRecord(
+                    this.slots[slot],
+                    this.owner.getName(),
+                    TraceEvent.values()[(int) this.slots[slot + 1]],
+                    (int) (this.slots[slot + 2] >> 32),
+                    (int) this.slots[slot + 2],
+                    (int) this.slots[slot + 3]
+            ));
+        }
+
+        // Events the owner overwrote while they were being copied may be torn, so they are dropped; that includes
+        // the slot of the event it may be writing right now, which is not counted in written yet
+        VarHandle.acquireFence();
+        long overwrittenBefore = this.written.get() - CAPACITY + 1;
+        if (overwrittenBefore > start) {
+            int torn = (int) (Math.min(overwrittenBefore, end) - start);
+            records.subList(firstCopied, firstCopied + torn).clear();
+            lost += torn;
+        }
+
+        this.drained = end;
+        return lost;
+    }
+}
@@ -0,0 +1,24 @@
+package factory.util.trace;
+
+public enum TraceEvent {
+    PARTS_DELIVERED("PartsSupplier:%d added %d part(s) to Storage:%d"),
+    SUPPLIER_WAITING("PartsSupplier:%d is waiting for Storage:%d to become available"),
+    CAR_REQUESTED("Dealer %d is requesting a new car from CarStorageController:%d"),
+    CAR_RECEIVED("Dealer %d got Auto %d from CarStorageController:%d"),
+    REQUEST_WAITING("CarStorageController:%d waits for a new car to be assembled (%d pending)"),
+    ASSEMBLY_DISPATCHED("CarStorageController:%d dispatched CarAssemblyTask:%d (%d assembling)"),
+    BODY_TAKEN("CarAssemblyTask:%d has taken Body:%d from Storage:%d"),
+    MOTOR_TAKEN("CarAssemblyTask:%d has taken Motor:%d from Storage:%d"),
+    ACCESSORY_TAKEN("CarAssemblyTask:%d has taken Accessory:%d from Storage:%d"),
+    CAR_DISPATCHED("CarAssemblyTask:%d dispatched Auto %d to Storage:%d");
+
+    private final String format;
+
+    TraceEvent(String format) {
+        this.format = format;
+    }
+
+    String format(int first, int second, int third) {
+        return String.format(this.format, first, second, third);
+    }
+}
@@ -0,0 +1,25 @@
+package factory.util.trace;
+
+final class TraceRecord {
+    final long nanos;
+    final String threadName;
+    final TraceEvent event;
+    final int first;
+    final int second;
+    final int third;
+
+    TraceRecord(
+            long nanos,
+            String threadName,
+            TraceEvent event,
+            int first,
+            int second,
+            int third) {
+        this.nanos = nanos;
+        this.threadName = threadName;
+        this.event = event;
+        this.first = first;
+        this.second = second;
+        this.third = third;
+    }
+}
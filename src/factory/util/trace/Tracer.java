@@ -0,0 +1,76 @@
+package factory.util.trace;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+ * Hot paths call record() with plain ids instead of logging at FINE level. While tracing is off a call is
+ * a single volatile read; while it is on, events are copied into the calling thread's ring buffer and
+ * only formatted when dump() drains them.
+ */
+public final class Tracer {
+    private static final ConcurrentLinkedQueue<TraceBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<TraceBuffer> currentBuffer = ThreadLocal.withInitial(() -> {
+        var buffer = new TraceBuffer(Thread.currentThread());
+        Tracer.buffers.add(buffer);
+        return buffer;
+    });
+
+    private static volatile boolean isEnabled = false;
+
+    private Tracer() {
+    }
+
+    public static boolean isEnabled() {
+        return Tracer.isEnabled;
+    }
+
+    public static void setEnabled(boolean isEnabled) {
+        Tracer.isEnabled = isEnabled;
+    }
+
+    public static void record(TraceEvent event, int first, int second) {
+        if (Tracer.isEnabled) {
+            Tracer.currentBuffer.get().record(event, first, second, 0);
+        }
+    }
+
+    public static void record(TraceEvent event, int first, int second, int third) {
+        if (Tracer.isEnabled) {
+            Tracer.currentBuffer.get().record(event, first, second, third);
+        }
+    }
+
+    // Drains every buffer and prints the events ordered by time; returns the number of printed events
+    public static synchronized int dump(PrintStream out) {
+        var records = new ArrayList<TraceRecord>();
+        long lost = 0;
+
+        for (var buffer : Tracer.buffers) {
+            lost += buffer.drainTo(records);
+            if (!buffer.isOwnerAlive()) {
+                Tracer.buffers.remove(buffer);
+            }
+        }
+
+        records.sort(Comparator.comparingLong(record -> record.nanos));
+
+        long startNanos = records.isEmpty() ? 0 : records.get(0).nanos;
+        for (var record : records) {
+            out.printf(
+                    "[+%.3f ms] [%s] %s%n",
+                    (record.nanos - startNanos) / 1e6,
+                    record.threadName,
+                    record.event.format(record.first, record.second, record.third)
+            );
+        }
+        if (lost > 0) {
+            out.printf("%d event(s) were overwritten before being dumped%n", lost);
+        }
+        out.flush();
+
+        return records.size();
+    }
+}
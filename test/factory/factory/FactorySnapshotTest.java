@@ -0,0 +1,235 @@
+package factory.factory;
+
+import factory.factory.car.Car;
+import factory.factory.car.parts.Accessory;
+import factory.factory.car.parts.Body;
+import factory.factory.car.parts.Motor;
+import factory.factory.storage.Storage;
+import factory.test.Check;
+import factory.util.UniqueObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public final class FactorySnapshotTest {
+
+    public static void testSnapshotRoundTripsThroughAFile()
+            throws IOException {
+        var written = new FactorySnapshot(
+                17,
+                Map.of(Body.class.getName(), 40, Motor.class.getName(), Integer.MAX_VALUE),
+                new int[] { 3, 1, 2 },
+                new int[0],
+                new int[] { Integer.MIN_VALUE, -1, 0 },
+                new int[] { 5, 6, 7, 8 },
+                new int[] { 9, 10, 11, 12, 13, 14 }
+        );
+
+        var directory = Files.createTempDirectory("snapshot");
+        var file = directory.resolve("factory.snapshot");
+        try {
+            written.write(file);
+            var read = FactorySnapshot.read(file);
+
+            Check.equal(written.dispatchedCarsCount, read.dispatchedCarsCount, "dispatched cars count");
+            Check.equal(written.nextIds, read.nextIds, "next ids");
+            Check.equal(written.bodyIds, read.bodyIds, "body ids");
+            Check.equal(written.motorIds, read.motorIds, "motor ids");
+            Check.equal(written.accessoryIds, read.accessoryIds, "accessory ids");
+            Check.equal(written.cars, read.cars, "cars");
+            Check.equal(written.kits, read.kits, "kits");
+            Check.isTrue(!Files.exists(directory.resolve("factory.snapshot.tmp")), "temporary file is left behind");
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(directory);
+        }
+    }
+
+    public static void testTruncatedSnapshotIsRejected()
+            throws IOException {
+        var file = Files.createTempFile("factory", ".snapshot");
+        try {
+            new FactorySnapshot(0, Map.of(), new int[] { 1, 2, 3 }, new int[0], new int[0], new int[0], new int[0])
+                    .write(file);
+            var bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+            Check.fails(IOException.class, () -> FactorySnapshot.read(file), "truncated snapshot");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static void testFactoryRestoresItsStorages()
+            throws IOException {
+        var file = Files.createTempFile("factory", ".snapshot");
+        try {
+            var saved = newFactory();
+            var bodies = fill(saved.getStorageArea().bodiesStorage, new Body(), new Body());
+            var motors = fill(saved.getStorageArea().motorsStorage, new Motor());
+            var accessories = fill(saved.getStorageArea().accessoriesStorage);
+            var cars = fill(saved.getStorageArea().carsStorage, new Car(new Body(), new Motor(), new Accessory()));
+            saved.snapshot(file);
+
+            Check.equal(bodies, drain(saved.getStorageArea().bodiesStorage), "bodies kept by the snapshot");
+
+            var restored = newFactory();
+            restored.restore(file);
+
+            var storageArea = restored.getStorageArea();
+            Check.equal(bodies, drain(storageArea.bodiesStorage), "restored bodies");
+            Check.equal(motors, drain(storageArea.motorsStorage), "restored motors");
+            Check.equal(accessories, drain(storageArea.accessoriesStorage), "restored accessories");
+
+            var restoredCars = drain(storageArea.carsStorage);
+            Check.equal(cars, restoredCars, "restored cars");
+            Check.equal(cars.get(0).getBody(), restoredCars.get(0).getBody(), "restored car body");
+            Check.equal(cars.get(0).getMotor(), restoredCars.get(0).getMotor(), "restored car motor");
+            Check.equal(cars.get(0).getAccessory(), restoredCars.get(0).getAccessory(), "restored car accessory");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static void testRestoreAdvancesIdCounters()
+            throws IOException {
+        var file = Files.createTempFile("factory", ".snapshot");
+        try {
+            // Ids past everything handed out so far, so only the restore can move the counters that far
+            int nextBodyId = UniqueObject.getNextIds().getOrDefault(Body.class.getName(), 0) + 1_000;
+            int nextMotorId = UniqueObject.getNextIds().getOrDefault(Motor.class.getName(), 0) + 2_000;
+            new FactorySnapshot(
+                    0,
+                    Map.of(Body.class.getName(), nextBodyId, Motor.class.getName(), nextMotorId),
+                    new int[] { nextBodyId - 1 },
+                    new int[0],
+                    new int[0],
+                    new int[0],
+                    new int[0]
+            ).write(file);
+
+            newFactory().restore(file);
+
+            Check.equal(nextBodyId, (int) UniqueObject.getNextIds().get(Body.class.getName()), "next body id");
+            Check.equal(nextMotorId, (int) UniqueObject.getNextIds().get(Motor.class.getName()), "next motor id");
+            Check.equal(nextBodyId, new Body().getId(), "id of a new body");
+            Check.equal(nextMotorId, new Motor().getId(), "id of a new motor");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static void testUnassembledKitsSurviveRestoreAndSnapshot()
+            throws IOException {
+        var file = Files.createTempFile("factory", ".snapshot");
+        try {
+            var kits = new int[] { new Body().getId(), new Motor().getId(), new Accessory().getId() };
+            new FactorySnapshot(0, Map.of(), new int[0], new int[0], new int[0], new int[0], kits).write(file);
+
+            var factory = newFactory();
+            factory.restore(file);
+            factory.snapshot(file);
+
+            Check.equal(kits, FactorySnapshot.read(file).kits, "kits");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static void testKitRefusedByAStoppedPoolIsKept()
+            throws IOException {
+        var file = Files.createTempFile("factory", ".snapshot");
+        try {
+            var factory = newFactory();
+            var storageArea = factory.getStorageArea();
+            var body = fill(storageArea.bodiesStorage, new Body()).get(0);
+            var motor = fill(storageArea.motorsStorage, new Motor()).get(0);
+            var accessory = fill(storageArea.accessoriesStorage, new Accessory()).get(0);
+
+            Check.fails(
+                    IllegalStateException.class,
+                    () -> storageArea.controller.control(task -> {
+                        throw new IllegalStateException("Pool is stopped");
+                    }),
+                    "dispatch to a stopped pool"
+            );
+            Check.equal(0, storageArea.getMaximumPossibleCarsCount(), "kits left in the storages");
+            Check.equal(0, storageArea.controller.getAssemblingCarsCount(), "assembling cars");
+
+            factory.snapshot(file);
+
+            var snapshot = FactorySnapshot.read(file);
+            Check.equal(new int[] { body.getId(), motor.getId(), accessory.getId() }, snapshot.kits, "kits");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static void testCarCutOffByShutdownIsKept()
+            throws IOException, InterruptedException {
+        var file = Files.createTempFile("factory", ".snapshot");
+        try {
+            var properties = Factory.FactoryProperties.readProperties();
+            properties.setProperty("SalesLog", "None");
+            properties.setProperty("CarStorageSize", "1");
+            properties.setProperty("CarStorageLowWaterMark", "1");
+            var factory = new Factory(Factory.FactoryProperties.fromProperties(properties));
+
+            var storageArea = factory.getStorageArea();
+            var storedCar = fill(storageArea.carsStorage, new Car(new Body(), new Motor(), new Accessory())).get(0);
+            var body = fill(storageArea.bodiesStorage, new Body()).get(0);
+            var motor = fill(storageArea.motorsStorage, new Motor()).get(0);
+            var accessory = fill(storageArea.accessoriesStorage, new Accessory()).get(0);
+
+            // An open request asks for a car beyond the one stored, whose worker then blocks on the full storage
+            factory.runPipeline();
+            storageArea.controller.openRequest();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (storageArea.carsStorage.getWaitingProducersCount() == 0) {
+                Check.isTrue(System.nanoTime() < deadline, "worker blocks on the full cars storage");
+                Thread.sleep(1);
+            }
+
+            factory.shutdown();
+            factory.snapshot(file);
+
+            var snapshot = FactorySnapshot.read(file);
+            Check.equal(new int[] { body.getId(), motor.getId(), accessory.getId() }, snapshot.kits, "kits");
+            Check.equal(storedCar.getId(), snapshot.cars[0], "stored car");
+            Check.equal(0, snapshot.bodyIds.length + snapshot.motorIds.length + snapshot.accessoryIds.length, "parts");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Factory newFactory()
+            throws IOException {
+        var properties = Factory.FactoryProperties.readProperties();
+        properties.setProperty("SalesLog", "None");
+
+        return new Factory(Factory.FactoryProperties.fromProperties(properties));
+    }
+
+    @SafeVarargs
+    private static <T extends UniqueObject> ArrayList<T> fill(Storage<T> storage, T... elements) {
+        var filled = new ArrayList<T>();
+        for (var element : elements) {
+            Check.isTrue(storage.offer(element), "storage has room");
+            filled.add(element);
+        }
+
+        return filled;
+    }
+
+    private static <T extends UniqueObject> ArrayList<T> drain(Storage<T> storage) {
+        var elements = new ArrayList<T>();
+        storage.drainTo(elements, Integer.MAX_VALUE);
+
+        return elements;
+    }
+}
@@ -0,0 +1,63 @@
+package factory.factory.dealer;
+
+import factory.factory.Factory;
+import factory.factory.car.Car;
+import factory.factory.car.parts.Accessory;
+import factory.factory.car.parts.Body;
+import factory.factory.car.parts.Motor;
+import factory.test.Check;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public final class SalesJournalTest {
+
+    public static void testFullQueueDropsInsteadOfBlocking()
+            throws IOException {
+        var dealer = newDealer();
+        var car = new Car(new Body(), new Motor(), new Accessory());
+        var file = Files.createTempFile("sales", ".txt");
+        var journal = new SalesJournal(file);
+
+        try {
+            // Nothing drains the queue before the journal starts, so everything past the bound is dropped at once
+            for (int i = 0; i < SalesJournal.MAX_PENDING_SALES + 10; ++i) {
+                journal.record(dealer, car);
+            }
+            Check.equal(10, journal.getDroppedSalesCount(), "dropped sales");
+
+            journal.start();
+            journal.stop();
+            Check.equal(SalesJournal.MAX_PENDING_SALES, Files.readAllLines(file).size(), "journaled sales");
+
+            journal.record(dealer, car);
+            Check.equal(10, journal.getDroppedSalesCount(), "dropped sales once drained");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static void testFailedWriterDropsLaterSales()
+            throws IOException {
+        var dealer = newDealer();
+        var car = new Car(new Body(), new Motor(), new Accessory());
+        var journal = new SalesJournal(Path.of("no such directory", "sales.txt"));
+
+        journal.start();
+        journal.stop();
+        for (int i = 0; i < 3; ++i) {
+            journal.record(dealer, car);
+        }
+
+        Check.equal(3, journal.getDroppedSalesCount(), "dropped sales");
+    }
+
+    private static Dealer newDealer()
+            throws IOException {
+        var properties = Factory.FactoryProperties.readProperties();
+        properties.setProperty("SalesLog", "None");
+
+        return new Factory(Factory.FactoryProperties.fromProperties(properties)).getDealers().dealers.get(0);
+    }
+}
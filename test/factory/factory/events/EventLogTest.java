@@ -0,0 +1,91 @@
+package factory.factory.events;
+
+import factory.factory.Factory;
+import factory.factory.car.parts.Body;
+import factory.factory.storage.StorageBackend;
+import factory.test.Check;
+
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+public final class EventLogTest {
+    private static final int THREADS_COUNT = 4;
+    private static final int PARTS_PER_THREAD = 5_000;
+
+    public static void testSequenceFollowsTheStorageOrder()
+            throws Exception {
+        for (var backend : StorageBackend.Type.values()) {
+            checkSequenceFollowsTheStorageOrder(backend);
+        }
+    }
+
+    // Producers and consumers race on a small storage; replaying the log in sequence order through a plain queue
+    // must hand every take the part the storage actually gave it
+    private static void checkSequenceFollowsTheStorageOrder(StorageBackend.Type backend)
+            throws Exception {
+        var properties = Factory.FactoryProperties.readProperties();
+        properties.setProperty("SalesLog", "None");
+        properties.setProperty("StorageBackend", backend.toString());
+        var storageArea = new Factory(Factory.FactoryProperties.fromProperties(properties)).getStorageArea();
+        var storage = storageArea.bodiesStorage;
+        var file = Files.createTempFile("events", ".bin");
+
+        try {
+            EventLog.open(file, storageArea);
+            try {
+                var threads = new ArrayList<Thread>();
+                for (int t = 0; t < THREADS_COUNT; ++t) {
+                    int actorId = t;
+                    threads.add(new Thread(() -> {
+                        var recorder = EventLog.recorder(EventType.PART_DELIVERED, actorId, storage.getId());
+                        try {
+                            for (int i = 0; i < PARTS_PER_THREAD; ++i) {
+                                storage.put(new Body(), recorder);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+                    threads.add(new Thread(() -> {
+                        var recorder = EventLog.recorder(EventType.PART_TAKEN, actorId, storage.getId());
+                        try {
+                            for (int i = 0; i < PARTS_PER_THREAD; ++i) {
+                                if (storage.poll(recorder) == null) {
+                                    storage.take(recorder);
+                                }
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+                }
+
+                for (var thread : threads) {
+                    thread.start();
+                }
+                for (var thread : threads) {
+                    thread.join();
+                }
+            } finally {
+                EventLog.close();
+            }
+
+            var stored = new ArrayDeque<Integer>();
+            int[] takesCount = { 0 };
+            new EventLogReader(file).forEach((sequence, nanos, type, actorId, objectId, storageId) -> {
+                if (type == EventType.PART_DELIVERED) {
+                    stored.add(objectId);
+                } else {
+                    Check.equal(stored.poll(), (Integer) objectId, backend + " part of take " + takesCount[0]);
+                    takesCount[0] += 1;
+                }
+            });
+
+            Check.equal((long) THREADS_COUNT * PARTS_PER_THREAD, takesCount[0], backend + " takes");
+            Check.isTrue(stored.isEmpty(), backend + " storage is empty");
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package factory.factory.storage;
+
+import factory.factory.car.Car;
+import factory.factory.car.parts.Accessory;
+import factory.factory.car.parts.Body;
+import factory.factory.car.parts.Motor;
+import factory.test.Check;
+
+import java.util.ArrayList;
+
+public final class PackedCodecTest {
+
+    public static void testPartsRoundTripByTheirIds() {
+        var codec = PackedCodec.ofIds(Motor::new);
+        var ints = new int[3];
+
+        for (var id : new int[] { 0, 1, Integer.MAX_VALUE, Integer.MIN_VALUE }) {
+            var motor = new Motor(id);
+            codec.encode(motor, ints, 1);
+
+            var decoded = codec.decode(ints, 1);
+            Check.equal(motor, decoded, "decoded motor");
+            Check.equal(0, ints[0], "int before the element");
+            Check.equal(0, ints[2], "int after the element");
+        }
+    }
+
+    public static void testCarsRoundTripWithTheirParts() {
+        var codec = PackedCodec.CARS;
+        var ints = new int[2 * codec.intsPerElement()];
+        var car = new Car(11, new Body(22), new Motor(33), new Accessory(Integer.MAX_VALUE));
+
+        codec.encode(car, ints, codec.intsPerElement());
+        var decoded = codec.decode(ints, codec.intsPerElement());
+
+        Check.equal(car, decoded, "decoded car");
+        Check.equal(car.getBody(), decoded.getBody(), "decoded body");
+        Check.equal(car.getMotor(), decoded.getMotor(), "decoded motor");
+        Check.equal(car.getAccessory(), decoded.getAccessory(), "decoded accessory");
+    }
+
+    public static void testBackendKeepsOrderWhileGrowingAndWrapping() {
+        int capacity = 100;
+        var backend = new PackedStorageBackend<>(capacity, PackedCodec.CARS);
+        var expected = new ArrayList<Car>();
+        var taken = new ArrayList<Car>();
+
+        // Wraps the head around the first rings before filling up to the capacity
+        for (int i = 0; i < 3 * capacity; ++i) {
+            var car = new Car(i, new Body(i), new Motor(-i), new Accessory(2 * i));
+            if (backend.size() == capacity) {
+                taken.add(backend.poll());
+            } else if (i % 3 == 2) {
+                taken.add(backend.poll());
+            }
+
+            Check.isTrue(backend.offer(car), "offer below the capacity");
+            expected.add(car);
+        }
+
+        Check.equal(capacity, backend.size(), "size at the capacity");
+        Check.isTrue(!backend.offer(new Car(new Body(), new Motor(), new Accessory())), "offer at the capacity");
+        backend.drainTo(taken, Integer.MAX_VALUE);
+
+        Check.equal(expected, taken, "cars in order");
+        for (int i = 0; i < expected.size(); ++i) {
+            Check.equal(expected.get(i).getMotor(), taken.get(i).getMotor(), "motor of car " + i);
+        }
+        Check.equal(0, backend.size(), "size once drained");
+        Check.equal(null, backend.poll(), "poll of an empty backend");
+    }
+
+    public static void testBackendGrowsToAnUnevenCapacity() {
+        var backend = new PackedStorageBackend<>(37, PackedCodec.ofIds(Body::new));
+
+        for (int i = 0; i < 37; ++i) {
+            Check.isTrue(backend.offer(new Body(i)), "offer of body " + i);
+        }
+        Check.isTrue(!backend.offer(new Body(37)), "offer at the capacity");
+
+        backend.setCapacity(40);
+        Check.isTrue(backend.offer(new Body(37)), "offer after raising the capacity");
+        for (int i = 0; i <= 37; ++i) {
+            Check.equal(new Body(i), backend.poll(), "body " + i);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package factory.factory.storage;
+
+import factory.test.Check;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public final class RingBufferStorageBackendTest {
+    private static final int THREADS_COUNT = 4;
+    private static final int ELEMENTS_PER_THREAD = 20_000;
+    private static final long JOIN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    // Every element put by any producer is taken by exactly one consumer, through both blocking and non-blocking calls
+    public static void testEveryElementIsTakenOnce()
+            throws InterruptedException {
+        var backend = new RingBufferStorageBackend<Integer>(8);
+        var takenCounts = new AtomicIntegerArray(THREADS_COUNT * ELEMENTS_PER_THREAD);
+
+        runProducersAndConsumers(backend, takenCounts, null);
+
+        checkTakenOnce(takenCounts);
+        Check.equal(0, backend.size(), "size once drained");
+        Check.equal(null, backend.poll(), "poll once drained");
+    }
+
+    // Capacity changes while producers are blocked on a full ring neither lose elements nor strand the producers
+    public static void testCapacityChangesUnderLoad()
+            throws InterruptedException {
+        int slotsCount = 16;
+        var backend = new RingBufferStorageBackend<Integer>(slotsCount);
+        var takenCounts = new AtomicIntegerArray(THREADS_COUNT * ELEMENTS_PER_THREAD);
+
+        var maxSize = new AtomicInteger();
+        var resizer = new Thread(() -> {
+            for (int capacity = 1; !Thread.currentThread().isInterrupted(); capacity = capacity % slotsCount + 1) {
+                backend.setCapacity(capacity);
+                maxSize.accumulateAndGet(backend.size(), Math::max);
+                Thread.yield();
+            }
+        });
+
+        runProducersAndConsumers(backend, takenCounts, resizer);
+
+        checkTakenOnce(takenCounts);
+        Check.isTrue(maxSize.get() <= slotsCount, "size within the slots");
+        Check.equal(0, backend.size(), "size once drained");
+        Check.fails(IllegalArgumentException.class, () -> backend.setCapacity(slotsCount + 1), "growth past the slots");
+    }
+
+    private static void runProducersAndConsumers(
+            RingBufferStorageBackend<Integer> backend,
+            AtomicIntegerArray takenCounts,
+            Thread resizer)
+            throws InterruptedException {
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < THREADS_COUNT; ++t) {
+            int first = t * ELEMENTS_PER_THREAD;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = first; i < first + ELEMENTS_PER_THREAD; ++i) {
+                        if (!backend.offer(i)) {
+                            backend.put(i, null);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < ELEMENTS_PER_THREAD; ++i) {
+                        var element = backend.poll();
+                        if (element == null) {
+                            element = backend.take(null);
+                        }
+                        takenCounts.incrementAndGet(element);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        for (var thread : threads) {
+            thread.start();
+        }
+        if (resizer != null) {
+            resizer.start();
+        }
+
+        for (var thread : threads) {
+            thread.join(JOIN_MILLIS);
+            Check.isTrue(!thread.isAlive(), "producers and consumers finish");
+        }
+        if (resizer != null) {
+            resizer.interrupt();
+            resizer.join();
+        }
+    }
+
+    private static void checkTakenOnce(AtomicIntegerArray takenCounts) {
+        for (int i = 0; i < takenCounts.length(); ++i) {
+            Check.equal(1, takenCounts.get(i), "times element " + i + " was taken");
+        }
+    }
+}
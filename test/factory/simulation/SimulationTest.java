@@ -0,0 +1,69 @@
+package factory.simulation;
+
+import factory.factory.Factory;
+import factory.test.Check;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public final class SimulationTest {
+    private static final long DURATION_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int ASSEMBLY_MILLIS = 100;
+
+    public static void testSameSeedReplaysTheSameRun()
+            throws IOException {
+        var first = simulate(7);
+        var second = simulate(7);
+
+        Check.isTrue(first.getCarsSold() > 0, "cars are sold");
+        Check.equal(first.getElapsedNanos(), second.getElapsedNanos(), "elapsed nanos");
+        Check.equal(first.getEventsCount(), second.getEventsCount(), "events count");
+        Check.equal(first.getCarsSold(), second.getCarsSold(), "cars sold");
+        Check.equal(first.getRequestLatencyNanos().getCount(), second.getRequestLatencyNanos().getCount(), "requests");
+        Check.equal(first.getRequestLatencyNanos().getSum(), second.getRequestLatencyNanos().getSum(), "latency sum");
+        Check.equal(first.getRequestLatencyNanos().getMax(), second.getRequestLatencyNanos().getMax(), "latency max");
+        Check.equal(first.getWorkersUtilization(), second.getWorkersUtilization(), "workers utilization");
+        Check.equal(first.getSuppliersWaitShare(), second.getSuppliersWaitShare(), "suppliers wait share");
+    }
+
+    public static void testOtherSeedRunsDifferently()
+            throws IOException {
+        var first = simulate(7);
+        var second = simulate(8);
+
+        Check.isTrue(
+                first.getEventsCount() != second.getEventsCount()
+                        || first.getRequestLatencyNanos().getSum() != second.getRequestLatencyNanos().getSum(),
+                "runs with other seeds differ"
+        );
+    }
+
+    public static void testContinuedRunMatchesOneRun()
+            throws IOException {
+        var once = simulate(7);
+
+        var twice = newSimulation(7);
+        twice.run(DURATION_NANOS / 2);
+        twice.run(DURATION_NANOS - DURATION_NANOS / 2);
+
+        Check.equal(once.getEventsCount(), twice.getEventsCount(), "events count");
+        Check.equal(once.getCarsSold(), twice.getCarsSold(), "cars sold");
+        Check.equal(once.getRequestLatencyNanos().getSum(), twice.getRequestLatencyNanos().getSum(), "latency sum");
+    }
+
+    private static Simulation simulate(long seed)
+            throws IOException {
+        var simulation = newSimulation(seed);
+        simulation.run(DURATION_NANOS);
+
+        return simulation;
+    }
+
+    private static Simulation newSimulation(long seed)
+            throws IOException {
+        var properties = Factory.FactoryProperties.readProperties();
+        properties.setProperty("WorkersCount", "2");
+
+        return new Simulation(properties, seed, ASSEMBLY_MILLIS);
+    }
+}
@@ -0,0 +1,69 @@
+package factory.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.LogManager;
+
+/*
+ * Runs every public static no-argument method whose name starts with "test" in the listed classes, in name
+ * order, and exits with status 1 if any of them throws. Tests live in the package of the code they cover, so
+ * they can reach what is package-private there.
+ */
+public final class AllTests {
+    private static final Class<?>[] TEST_CLASSES = {
+            factory.factory.FactorySnapshotTest.class,
+            factory.factory.dealer.SalesJournalTest.class,
+            factory.factory.events.EventLogTest.class,
+            factory.factory.storage.PackedCodecTest.class,
+            factory.factory.storage.RingBufferStorageBackendTest.class,
+            factory.simulation.SimulationTest.class,
+            factory.threadpool.ThreadPoolTest.class,
+            factory.util.BinarySalesFormatTest.class,
+            factory.util.PeriodicSchedulerTest.class,
+            factory.util.TextSalesFormatTest.class,
+    };
+
+    public static void main(String[] args)
+            throws Exception {
+        LogManager.getLogManager().reset();
+
+        int passedCount = 0;
+        int failedCount = 0;
+
+        for (var testClass : TEST_CLASSES) {
+            var tests = Arrays.stream(testClass.getDeclaredMethods())
+                    .filter(AllTests::isTest)
+                    .sorted(Comparator.comparing(Method::getName))
+                    .toArray(Method[]::new);
+
+            for (var test : tests) {
+                var name = testClass.getSimpleName() + "." + test.getName();
+                try {
+                    test.invoke(null);
+                    passedCount += 1;
+                    System.out.printf("PASS %s%n", name);
+                } catch (InvocationTargetException e) {
+                    failedCount += 1;
+                    System.out.printf("FAIL %s: %s%n", name, e.getCause());
+                    e.getCause().printStackTrace(System.out);
+                }
+            }
+        }
+
+        System.out.printf("%d passed, %d failed%n", passedCount, failedCount);
+        if (failedCount > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean isTest(Method method) {
+        int modifiers = method.getModifiers();
+        return method.getName().startsWith("test")
+                && method.getParameterCount() == 0
+                && Modifier.isPublic(modifiers)
+                && Modifier.isStatic(modifiers);
+    }
+}
@@ -0,0 +1,59 @@
+package factory.test;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+// Assertions for the tests; a failed check throws an AssertionError that AllTests reports with its message
+public final class Check {
+
+    private Check() {
+    }
+
+    public static void isTrue(boolean condition, String what) {
+        if (!condition) {
+            throw new AssertionError(what);
+        }
+    }
+
+    public static void equal(long expected, long actual, String what) {
+        if (expected != actual) {
+            throw new AssertionError(String.format("%s: expected %d, got %d", what, expected, actual));
+        }
+    }
+
+    public static void equal(Object expected, Object actual, String what) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(String.format("%s: expected %s, got %s", what, expected, actual));
+        }
+    }
+
+    public static void equal(int[] expected, int[] actual, String what) {
+        if (!Arrays.equals(expected, actual)) {
+            throw new AssertionError(String.format(
+                    "%s: expected %s, got %s",
+                    what,
+                    Arrays.toString(expected),
+                    Arrays.toString(actual)
+            ));
+        }
+    }
+
+    public static void fails(Class<? extends Throwable> expected, Action action, String what) {
+        try {
+            action.run();
+        } catch (Throwable e) {
+            if (expected.isInstance(e)) {
+                return;
+            }
+            throw new AssertionError(String.format("%s: expected %s, got %s", what, expected.getSimpleName(), e), e);
+        }
+
+        throw new AssertionError(String.format("%s: expected %s, got nothing", what, expected.getSimpleName()));
+    }
+
+    @FunctionalInterface
+    public interface Action {
+
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,54 @@
+package factory.threadpool;
+
+import factory.test.Check;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public final class ThreadPoolTest {
+    private static final int ROOT_TASKS_COUNT = 10_000;
+    private static final long WAIT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    // Half the tasks are queued from outside and half by running tasks onto their own worker's deque, while the
+    // pool keeps growing and shrinking; retired workers must hand every queued task over, and none may run twice
+    public static void testWorkStealingRunsEveryTaskOnceAcrossResizes()
+            throws InterruptedException {
+        var pool = new ThreadPool(4, ThreadPool.Scheduling.WORK_STEALING, Thread::new);
+        var runCounts = new AtomicIntegerArray(2 * ROOT_TASKS_COUNT);
+
+        var resizer = new Thread(() -> {
+            for (int size = 1; !Thread.currentThread().isInterrupted(); size = size % 6 + 1) {
+                pool.resize(size);
+                Thread.yield();
+            }
+        });
+
+        pool.run();
+        resizer.start();
+        try {
+            for (int i = 0; i < ROOT_TASKS_COUNT; ++i) {
+                int child = ROOT_TASKS_COUNT + i;
+                int root = i;
+                pool.execute(() -> {
+                    runCounts.incrementAndGet(root);
+                    pool.execute(() -> runCounts.incrementAndGet(child));
+                });
+            }
+
+            long deadline = System.nanoTime() + WAIT_NANOS;
+            while (pool.getCompletedTasksCount() < runCounts.length() && System.nanoTime() - deadline < 0) {
+                Thread.sleep(1);
+            }
+        } finally {
+            resizer.interrupt();
+            resizer.join();
+        }
+
+        Check.equal(0, pool.shutdown().size(), "tasks left unstarted");
+        Check.equal(runCounts.length(), pool.getCompletedTasksCount(), "completed tasks");
+        Check.equal(0, pool.getQueuedTasksCount(), "queued tasks");
+        for (int i = 0; i < runCounts.length(); ++i) {
+            Check.equal(1, runCounts.get(i), "times task " + i + " ran");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package factory.util;
+
+import factory.test.Check;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+public final class BinarySalesFormatTest {
+    private static final long[][] RECORDS = {
+            { 0L, 0, 0, 0, 0, 0 },
+            { 1_760_000_000_123L, 1, 42, 7, 8, 9 },
+            { Long.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, -1, 65_536, 123_456_789 },
+    };
+
+    public static void testRecordsRoundTripThroughAFile()
+            throws IOException {
+        var file = writeRecords(0);
+        try (var reader = new BinarySalesReader(file)) {
+            Check.equal(RECORDS.length, reader.getRecordsCount(), "records count");
+            Check.equal(toStrings(RECORDS), readAll(reader), "records");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static void testTrailingPartialRecordIsIgnored()
+            throws IOException {
+        var file = writeRecords(BinarySalesFormat.RECORD_BYTES - 1);
+        try (var reader = new BinarySalesReader(file)) {
+            Check.equal(RECORDS.length, reader.getRecordsCount(), "records count");
+            Check.equal(toStrings(RECORDS), readAll(reader), "records");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static void testOtherFilesAreRejected()
+            throws IOException {
+        var file = Files.createTempFile("sales", ".bin");
+        try {
+            Files.write(file, new byte[] { 'D', 'e', 'a', 'l', 'e', 'r', ' ', '1' });
+            Check.fails(IOException.class, () -> new BinarySalesReader(file).close(), "text file");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public static void testEncoderFitsItsMaxRecordBytes() {
+        var encoder = new BinarySalesFormat();
+        var buffer = ByteBuffer.allocate(encoder.getMaxRecordBytes());
+        encoder.encode(buffer, Long.MAX_VALUE, 1, 2, 3, 4, 5);
+
+        Check.equal(BinarySalesFormat.RECORD_BYTES, buffer.position(), "record bytes");
+    }
+
+    private static Path writeRecords(int trailingBytes)
+            throws IOException {
+        var encoder = new BinarySalesFormat();
+        var buffer = ByteBuffer.allocate(
+                BinarySalesFormat.HEADER_BYTES + RECORDS.length * encoder.getMaxRecordBytes() + trailingBytes
+        );
+
+        encoder.encodeHeader(buffer);
+        for (var record : RECORDS) {
+            encoder.encode(
+                    buffer,
+                    record[0],
+                    (int) record[1],
+                    (int) record[2],
+                    (int) record[3],
+                    (int) record[4],
+                    (int) record[5]
+            );
+        }
+        buffer.position(buffer.position() + trailingBytes);
+        buffer.flip();
+
+        var file = Files.createTempFile("sales", ".bin");
+        try (var channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        return file;
+    }
+
+    private static ArrayList<String> readAll(BinarySalesReader reader)
+            throws IOException {
+        var records = new ArrayList<String>();
+        reader.forEach((timestampMillis, dealerId, carId, bodyId, motorId, accessoryId) -> records.add(
+                toString(timestampMillis, dealerId, carId, bodyId, motorId, accessoryId)
+        ));
+
+        return records;
+    }
+
+    private static ArrayList<String> toStrings(long[][] records) {
+        var strings = new ArrayList<String>();
+        for (var record : records) {
+            strings.add(toString(
+                    record[0],
+                    (int) record[1],
+                    (int) record[2],
+                    (int) record[3],
+                    (int) record[4],
+                    (int) record[5]
+            ));
+        }
+
+        return strings;
+    }
+
+    private static String toString(
+            long timestampMillis,
+            int dealerId,
+            int carId,
+            int bodyId,
+            int motorId,
+            int accessoryId) {
+        return String.format("%d %d %d %d %d %d", timestampMillis, dealerId, carId, bodyId, motorId, accessoryId);
+    }
+}
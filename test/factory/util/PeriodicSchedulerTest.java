@@ -0,0 +1,106 @@
+package factory.util;
+
+import factory.test.Check;
+import factory.threadpool.ThreadPool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public final class PeriodicSchedulerTest {
+    private static final int CANCELLED_RUN = 3;
+    private static final int TICKER_RUNS_AFTER_CANCEL = 100;
+    private static final long WAIT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    // Cancelled from its own period, so no run is in flight; the other periodic shows the wheel kept turning
+    public static void testCancelledPeriodicNeverRunsAgain()
+            throws InterruptedException {
+        checkCancelledPeriodicNeverRunsAgain(true);
+    }
+
+    // Cancelled while a full or empty storage stopped it, so it waits on the wheel for a retry that never comes
+    public static void testCancelledRetryNeverRunsAgain()
+            throws InterruptedException {
+        checkCancelledPeriodicNeverRunsAgain(false);
+    }
+
+    private static void checkCancelledPeriodicNeverRunsAgain(boolean isDone)
+            throws InterruptedException {
+        var pool = new ThreadPool(2);
+        var scheduler = new PeriodicScheduler(pool);
+        var cancelled = new CountingPeriodic(scheduler, CANCELLED_RUN, isDone);
+        var ticker = new CountingPeriodic(scheduler, 0, true);
+
+        pool.run();
+        scheduler.schedule(cancelled);
+        scheduler.schedule(ticker);
+        scheduler.start();
+        try {
+            await(() -> cancelled.runsCount.get() >= CANCELLED_RUN);
+            int tickerRunsCount = ticker.runsCount.get();
+            await(() -> ticker.runsCount.get() >= tickerRunsCount + TICKER_RUNS_AFTER_CANCEL);
+            await(() -> cancelled.abandonsCount.get() > 0);
+        } finally {
+            scheduler.shutdown();
+            pool.shutdown();
+        }
+
+        Check.equal(CANCELLED_RUN, cancelled.runsCount.get(), "runs of the cancelled periodic");
+        Check.equal(1, cancelled.abandonsCount.get(), "abandons of the cancelled periodic");
+        Check.equal(0, ticker.abandonsCount.get(), "abandons of the running periodic");
+    }
+
+    private static void await(BooleanSupplier condition)
+            throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + WAIT_NANOS;
+        while (!condition.getAsBoolean()) {
+            Check.isTrue(System.nanoTime() - deadlineNanos < 0, "condition met in time");
+            Thread.sleep(1);
+        }
+    }
+
+    // Counts its runs and cancels itself on the given one, which is 0 for never
+    private static final class CountingPeriodic implements Periodic {
+        private final PeriodicScheduler scheduler;
+        private final int cancelledRun;
+        private final boolean isDone;
+        private final AtomicInteger runsCount = new AtomicInteger();
+        private final AtomicInteger abandonsCount = new AtomicInteger();
+
+        private CountingPeriodic(
+                PeriodicScheduler scheduler,
+                int cancelledRun,
+                boolean isDone) {
+            this.scheduler = scheduler;
+            this.cancelledRun = cancelledRun;
+            this.isDone = isDone;
+        }
+
+        @Override
+        public int getDelayMillis() {
+            return 1;
+        }
+
+        @Override
+        public void setDelayMillis(int newDelayMillis) {
+        }
+
+        @Override
+        public boolean tryRunOnce() {
+            if (this.runsCount.incrementAndGet() == this.cancelledRun) {
+                this.scheduler.cancel(this);
+            }
+            return this.isDone;
+        }
+
+        @Override
+        public void abandon() {
+            this.abandonsCount.incrementAndGet();
+        }
+
+        @Override
+        public void run() {
+            throw new UnsupportedOperationException("Driven by its scheduler only");
+        }
+    }
+}
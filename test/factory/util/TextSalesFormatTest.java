@@ -0,0 +1,70 @@
+package factory.util;
+
+import factory.test.Check;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+public final class TextSalesFormatTest {
+    private static final long TIMESTAMP_MILLIS = 1_760_000_000_123L;
+
+    public static void testEncoderWritesTheFormatterTimestamp() {
+        var record = new LogRecord(Level.INFO, "Dealer 1: Auto 2 (Body:3, Motor:4, Accessory:5)");
+        record.setInstant(Instant.ofEpochMilli(TIMESTAMP_MILLIS));
+
+        Check.equal(new SalesFormatter().format(record), encode(TIMESTAMP_MILLIS, 1, 2, 3, 4, 5), "record line");
+    }
+
+    public static void testRecordsRoundTripThroughText() {
+        var line = encode(TIMESTAMP_MILLIS, 1, 2, 3, -4, Integer.MAX_VALUE).stripTrailing();
+        var decoded = new ArrayList<Long>();
+        TextSalesFormat.decode(line, (timestampMillis, dealerId, carId, bodyId, motorId, accessoryId) -> {
+            decoded.add(timestampMillis);
+            decoded.add((long) dealerId);
+            decoded.add((long) carId);
+            decoded.add((long) bodyId);
+            decoded.add((long) motorId);
+            decoded.add((long) accessoryId);
+        });
+
+        // Text keeps whole seconds only
+        var expected = List.of(TIMESTAMP_MILLIS / 1000 * 1000, 1L, 2L, 3L, -4L, (long) Integer.MAX_VALUE);
+        Check.equal(expected, decoded, "decoded record");
+    }
+
+    public static void testTimestampFollowsTheSecond() {
+        var format = new TextSalesFormat();
+        var first = encode(format, TIMESTAMP_MILLIS);
+        var sameSecond = encode(format, TIMESTAMP_MILLIS + 500);
+        var nextSecond = encode(format, TIMESTAMP_MILLIS + 1000);
+
+        Check.equal(first, sameSecond, "line within the same second");
+        Check.isTrue(!first.equals(nextSecond), "line of the next second differs");
+    }
+
+    private static String encode(
+            long timestampMillis,
+            int dealerId,
+            int carId,
+            int bodyId,
+            int motorId,
+            int accessoryId) {
+        var format = new TextSalesFormat();
+        var buffer = ByteBuffer.allocate(format.getMaxRecordBytes());
+        format.encode(buffer, timestampMillis, dealerId, carId, bodyId, motorId, accessoryId);
+
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+    }
+
+    private static String encode(TextSalesFormat format, long timestampMillis) {
+        var buffer = ByteBuffer.allocate(format.getMaxRecordBytes());
+        format.encode(buffer, timestampMillis, 1, 2, 3, 4, 5);
+
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+    }
+}
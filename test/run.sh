@@ -0,0 +1,17 @@
+#!/bin/sh
+# Builds the sources and tests, then runs every test; exits with a non-zero status if any test fails
+set -e
+
+root="$(cd "$(dirname "$0")/.." && pwd)"
+classes="$(mktemp -d)"
+trap 'rm -rf "$classes"' EXIT
+
+find "$root/src" "$root/test" -name '*.java' > "$classes/sources"
+javac -d "$classes" @"$classes/sources"
+(cd "$root/src" && find . -name '*.properties') | while read -r resource; do
+    mkdir -p "$classes/$(dirname "$resource")"
+    cp "$root/src/$resource" "$classes/$resource"
+done
+
+# shellcheck disable=SC2086
+java $JAVA_OPTS -cp "$classes" factory.test.AllTests